@@ -0,0 +1,47 @@
+package breaze.intro_spring.auth;
+
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark del filtro JWT completo con una FilterChain vacía.
+ * Compara el camino con la caché de tokens activa frente a la validación completa en cada petición.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthFilterBenchmark {
+
+    @Param({"10000", "0"})
+    public int cacheMaxSize;
+
+    private JwtAuthFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private final FilterChain chain = (req, res) -> { };
+
+    @Setup
+    public void setup() {
+        JwtService jwtService = new JwtService(JwtServiceBenchmark.SECRET, 60);
+        filter = new JwtAuthFilter(jwtService, new JwtTokenCache(cacheMaxSize), new RevocationService(null));
+        request = new MockHttpServletRequest("GET", "/libro/consultar");
+        request.addHeader("Authorization", "Bearer " + jwtService.generate("benchmark", JwtServiceBenchmark.ROLES));
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Object doFilterInternal() throws Exception {
+        filter.doFilterInternal(request, response, chain);
+        Object auth = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return auth;
+    }
+}
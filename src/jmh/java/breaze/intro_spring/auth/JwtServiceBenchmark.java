@@ -0,0 +1,75 @@
+package breaze.intro_spring.auth;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de emisión y validación de tokens en JwtService.
+ * Los métodos "anterior" reproducen la implementación previa (parser construido en cada llamada
+ * y doble signWith) para comparar el rendimiento antes y después del cambio.
+ * Ejecutar con: mvn -Pjmh test-compile exec:exec -Djmh.include=JwtServiceBenchmark
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+    static final String SECRET = "MySuperSecretKeyForJWTs1234567890!@#";
+    static final List<String> ROLES = List.of("USER", "ADMIN");
+
+    private JwtService jwtService;
+    private SecretKey key;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtService = new JwtService(SECRET, 60);
+        key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        token = jwtService.generate("benchmark", ROLES);
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtService.generate("benchmark", ROLES);
+    }
+
+    @Benchmark
+    public Claims parse() {
+        return jwtService.parse(token);
+    }
+
+    @Benchmark
+    public String generateAnterior() {
+        Instant now = Instant.now();
+        return Jwts.builder()
+                .subject("benchmark")
+                .claims(Map.of("roles", ROLES))
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plusSeconds(60 * 60)))
+                .signWith(key)
+                .signWith(key, Jwts.SIG.HS256)
+                .compact();
+    }
+
+    @Benchmark
+    public Claims parseAnterior() {
+        return Jwts.parser()
+                .verifyWith(key)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
@@ -0,0 +1,49 @@
+package breaze.intro_spring.auth;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de la comprobación de revocación que JwtAuthFilter hace en cada petición,
+ * con distintos tamaños de la lista de tokens revocados.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RevocationServiceBenchmark {
+
+    @Param({"1000", "100000"})
+    public int revocados;
+
+    private RevocationService revocationService;
+    private String jtiRevocado;
+    private String jtiValido;
+
+    @Setup
+    public void setup() {
+        revocationService = new RevocationService(null);
+        long expiraEn = System.currentTimeMillis() + 3_600_000L;
+        for (int i = 0; i < revocados; i++) {
+            jtiRevocado = UUID.randomUUID().toString();
+            revocationService.registrar(jtiRevocado, expiraEn);
+        }
+        jtiValido = UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean tokenValido() {
+        return revocationService.estaRevocado(jtiValido);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean tokenRevocado() {
+        return revocationService.estaRevocado(jtiRevocado);
+    }
+}
@@ -0,0 +1,66 @@
+package breaze.intro_spring.busqueda;
+
+import breaze.intro_spring.eventos.CambioCatalogoEvent;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de consulta y construcción de TrieAutocompletado con un catálogo sintético.
+ * Ejecutar con: mvn -Pjmh test-compile exec:exec -Djmh.include=TrieAutocompletadoBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TrieAutocompletadoBenchmark {
+
+    private static final String[] PALABRAS = {"cien", "años", "soledad", "amor", "tiempos", "cólera", "ciudad",
+            "perros", "casa", "espíritus", "sombra", "viento", "noche", "crónica", "muerte", "anunciada", "general",
+            "laberinto", "túnel", "ficciones", "aleph", "rayuela", "pedro", "páramo", "llano", "llamas"};
+    private static final String[] PREFIJOS = {"c", "ci", "sol", "cron", "anunc", "laber", "pedro pa", "x"};
+
+    @Param({"100000"})
+    public int libros;
+
+    private List<TrieAutocompletado.Sugerencia> sugerencias;
+    private TrieAutocompletado trie;
+    private int siguiente;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        sugerencias = new ArrayList<>(libros);
+        for (int i = 0; i < libros; i++) {
+            StringBuilder titulo = new StringBuilder();
+            int palabras = 2 + random.nextInt(4);
+            for (int j = 0; j < palabras; j++) {
+                titulo.append(j == 0 ? "" : " ").append(PALABRAS[random.nextInt(PALABRAS.length)]);
+            }
+            titulo.append(' ').append(i);
+            sugerencias.add(new TrieAutocompletado.Sugerencia(CambioCatalogoEvent.Entidad.LIBRO, (long) i,
+                    titulo.toString(), random.nextInt(1000)));
+        }
+        trie = TrieAutocompletado.construir(sugerencias);
+    }
+
+    @Benchmark
+    public List<TrieAutocompletado.Sugerencia> buscar() {
+        siguiente = (siguiente + 1) % PREFIJOS.length;
+        return trie.buscar(PREFIJOS[siguiente], 10);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    public TrieAutocompletado construir() {
+        return TrieAutocompletado.construir(sugerencias);
+    }
+}
@@ -0,0 +1,139 @@
+package breaze.intro_spring.carga;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prueba de carga HTTP para comparar el modo de hilos de plataforma con el perfil "virtual".
+ * Lanza N clientes concurrentes que repiten la misma petición durante un tiempo fijo y muestra
+ * el throughput, los percentiles de latencia (p50, p90, p99, máx.) y el número de errores y 503.
+ *
+ * Procedimiento:
+ * <pre>
+ * mvn -Pjmh test-compile
+ * # 1. Hilos de plataforma
+ * docker compose up -d --build
+ * java -cp target/test-classes breaze.intro_spring.carga.PruebaCarga \
+ *     http://localhost:8080/biblioteca/libro/consultar?tamanio=50 "$TOKEN" 400 60 15
+ * # 2. Hilos virtuales
+ * SPRING_PROFILES_ACTIVE=prod,virtual docker compose up -d --build
+ * java -cp target/test-classes breaze.intro_spring.carga.PruebaCarga ... (mismos argumentos)
+ * </pre>
+ * Argumentos: URL, token JWT (vacío si el endpoint es público), clientes concurrentes,
+ * segundos de medición y segundos de calentamiento previo (no medidos).
+ */
+public final class PruebaCarga {
+
+    private PruebaCarga() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Uso: PruebaCarga <url> <token> [clientes=200] [segundos=30] [calentamiento=10]");
+            System.exit(1);
+        }
+        URI uri = URI.create(args[0]);
+        String token = args[1];
+        int clientes = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        int segundos = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+        int calentamiento = args.length > 4 ? Integer.parseInt(args[4]) : 10;
+
+        HttpClient cliente = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        HttpRequest.Builder peticion = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET();
+        if (!token.isBlank()) {
+            peticion.header("Authorization", "Bearer " + token);
+        }
+        HttpRequest request = peticion.build();
+
+        System.out.printf("Calentamiento: %d s con %d clientes%n", calentamiento, clientes);
+        ejecutar(cliente, request, clientes, calentamiento);
+        System.out.printf("Medición: %d s con %d clientes contra %s%n", segundos, clientes, uri);
+        Resultado resultado = ejecutar(cliente, request, clientes, segundos);
+        resultado.imprimir(segundos);
+    }
+
+    /**
+     * Ejecuta la carga durante el tiempo indicado; cada cliente es un hilo virtual que envía
+     * una petición tras otra y anota su latencia.
+     */
+    private static Resultado ejecutar(HttpClient cliente, HttpRequest request, int clientes, int segundos)
+            throws InterruptedException {
+        long fin = System.nanoTime() + TimeUnit.SECONDS.toNanos(segundos);
+        AtomicLong errores = new AtomicLong();
+        AtomicLong rechazos = new AtomicLong();
+        List<long[]> latenciasPorCliente = new ArrayList<>(clientes);
+        int[] cantidades = new int[clientes];
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clientes; c++) {
+                long[] latencias = new long[1 << 16];
+                latenciasPorCliente.add(latencias);
+                int indice = c;
+                executor.submit(() -> {
+                    long[] propias = latencias;
+                    int n = 0;
+                    while (System.nanoTime() < fin) {
+                        long inicio = System.nanoTime();
+                        try {
+                            HttpResponse<Void> respuesta = cliente.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (respuesta.statusCode() == 503) {
+                                rechazos.incrementAndGet();
+                                continue;
+                            }
+                            if (respuesta.statusCode() >= 400) {
+                                errores.incrementAndGet();
+                                continue;
+                            }
+                        } catch (Exception e) {
+                            errores.incrementAndGet();
+                            continue;
+                        }
+                        if (n == propias.length) {
+                            propias = Arrays.copyOf(propias, n * 2);
+                            latenciasPorCliente.set(indice, propias);
+                        }
+                        propias[n++] = System.nanoTime() - inicio;
+                    }
+                    cantidades[indice] = n;
+                });
+            }
+        }
+        int total = Arrays.stream(cantidades).sum();
+        long[] todas = new long[total];
+        int pos = 0;
+        for (int c = 0; c < clientes; c++) {
+            System.arraycopy(latenciasPorCliente.get(c), 0, todas, pos, cantidades[c]);
+            pos += cantidades[c];
+        }
+        Arrays.sort(todas);
+        return new Resultado(todas, errores.get(), rechazos.get());
+    }
+
+    private record Resultado(long[] latencias, long errores, long rechazos) {
+        void imprimir(int segundos) {
+            System.out.printf("Peticiones correctas: %d (%.1f req/s)%n", latencias.length, (double) latencias.length / segundos);
+            System.out.printf("Errores: %d, rechazadas (503): %d%n", errores, rechazos);
+            if (latencias.length > 0) {
+                System.out.printf("Latencia ms  p50=%.2f  p90=%.2f  p99=%.2f  máx=%.2f%n",
+                        percentil(0.50), percentil(0.90), percentil(0.99), latencias[latencias.length - 1] / 1e6);
+            }
+        }
+
+        double percentil(double p) {
+            int indice = (int) Math.ceil(p * latencias.length) - 1;
+            return latencias[Math.max(0, indice)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package breaze.intro_spring.config;
+
+import breaze.intro_spring.IntroSpringApplication;
+import breaze.intro_spring.model.dto.CrearLibroInDTO;
+import breaze.intro_spring.model.dto.CrearLibroOutDTO;
+import breaze.intro_spring.model.dto.LibroCategoriaDTO;
+import breaze.intro_spring.model.dto.ResultadoImportacionDTO;
+import breaze.intro_spring.model.entidades.Autor;
+import breaze.intro_spring.model.entidades.Categoria;
+import breaze.intro_spring.repositorios.AutorRepository;
+import breaze.intro_spring.repositorios.CategoriaRepository;
+import breaze.intro_spring.services.IImportacionLibroService;
+import breaze.intro_spring.services.ILibroService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmark de integración de crearLibro y de la importación masiva con el pool por defecto
+ * y con el perfil "prod" (application-prod.properties).
+ * Arranca la aplicación completa contra H2 en modo MySQL; para medir también la caché de sentencias
+ * y rewriteBatchedStatements del driver, apuntar a un MySQL local:
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.include=PoolConexiones \
+ *     -Djmh.args="-jvmArgsAppend -Dbenchmark.url=jdbc:mysql://localhost:3307/biblioteca -jvmArgsAppend -Dbenchmark.usuario=appuser -jvmArgsAppend -Dbenchmark.clave=admin123"
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PoolConexionesBenchmark {
+
+    private static final int LIBROS_POR_IMPORTACION = 500;
+
+    @Param({"default", "prod"})
+    public String perfil;
+
+    private ConfigurableApplicationContext contexto;
+    private ILibroService libroService;
+    private IImportacionLibroService importacionService;
+    private Long autorId;
+    private Set<LibroCategoriaDTO> categorias;
+    private final AtomicLong secuencia = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        String url = System.getProperty("benchmark.url",
+                "jdbc:h2:mem:benchmark_" + perfil + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        SpringApplication app = new SpringApplication(IntroSpringApplication.class);
+        app.setAdditionalProfiles(perfil);
+        contexto = app.run("--spring.datasource.url=" + url,
+                "--spring.datasource.username=" + System.getProperty("benchmark.usuario", "sa"),
+                "--spring.datasource.password=" + System.getProperty("benchmark.clave", ""),
+                "--spring.jpa.hibernate.ddl-auto=" + System.getProperty("benchmark.ddl-auto", "create-drop"),
+                "--logging.sql.nivel=OFF",
+                "--management.server.port=0",
+                "--server.port=0",
+                "--spring.devtools.restart.enabled=false",
+                "--logging.level.root=WARN");
+        libroService = contexto.getBean(ILibroService.class);
+        importacionService = contexto.getBean(IImportacionLibroService.class);
+
+        Autor autor = new Autor();
+        autor.setNombre("Autor benchmark");
+        autor.setNacionalidad("Chilena");
+        autorId = contexto.getBean(AutorRepository.class).save(autor).getId();
+        categorias = Set.of(categoria("Novela", 1), categoria("Ensayo", 2));
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        System.out.println();
+        System.out.println(contexto.getBean(MetricasPool.class).instantanea());
+        contexto.close();
+    }
+
+    private LibroCategoriaDTO categoria(String nombre, int prioridad) {
+        Categoria categoria = new Categoria();
+        categoria.setNombre(nombre);
+        LibroCategoriaDTO dto = new LibroCategoriaDTO();
+        dto.setCategoria(contexto.getBean(CategoriaRepository.class).save(categoria).getId());
+        dto.setPrioridad(prioridad);
+        dto.setComentario("benchmark");
+        return dto;
+    }
+
+    private CrearLibroInDTO libro() {
+        long n = secuencia.incrementAndGet();
+        CrearLibroInDTO dto = new CrearLibroInDTO();
+        dto.setTitulo("Libro " + n);
+        dto.setAnioPublicacion(1900 + (int) (n % 120));
+        dto.setAutor(autorId);
+        dto.setIsbn("978" + n);
+        dto.setNumPaginas(100 + (int) (n % 500));
+        dto.setIdioma("es");
+        dto.setCategorias(categorias);
+        return dto;
+    }
+
+    /**
+     * Creación individual con varios clientes concurrentes, como llegan las peticiones POST /libro/crear.
+     */
+    @Benchmark
+    @Threads(8)
+    public CrearLibroOutDTO crearLibro() {
+        return libroService.crearLibro(libro());
+    }
+
+    /**
+     * Importación de un lote de libros por invocación; el resultado se expresa en libros por segundo.
+     */
+    @Benchmark
+    @OperationsPerInvocation(LIBROS_POR_IMPORTACION)
+    public ResultadoImportacionDTO importarLibros() {
+        List<CrearLibroInDTO> libros = new ArrayList<>(LIBROS_POR_IMPORTACION);
+        for (int i = 0; i < LIBROS_POR_IMPORTACION; i++) {
+            libros.add(libro());
+        }
+        return importacionService.importarLibros(libros.iterator());
+    }
+}
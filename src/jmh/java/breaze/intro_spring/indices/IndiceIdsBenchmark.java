@@ -0,0 +1,54 @@
+package breaze.intro_spring.indices;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Benchmark de la comprobación de existencia de un ID en IndiceIds frente a un HashSet de Long.
+ * Con -prof gc se verifica que la consulta al bitmap no reserva memoria.
+ * Ejecutar con: mvn -Pjmh test-compile exec:exec -Djmh.include=IndiceIdsBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IndiceIdsBenchmark {
+
+    @Param({"100000"})
+    public int ids;
+
+    private IndiceIds indice;
+    private Set<Long> conjunto;
+    private long siguiente;
+
+    @Setup
+    public void setup() {
+        List<Long> existentes = LongStream.rangeClosed(1, ids).boxed().toList();
+        indice = new IndiceIds();
+        indice.iniciarCarga();
+        indice.reemplazar(existentes);
+        conjunto = new HashSet<>(existentes);
+    }
+
+    @Benchmark
+    public boolean indice() {
+        return indice.contiene(proximoId());
+    }
+
+    @Benchmark
+    public boolean hashSet() {
+        return conjunto.contains(proximoId());
+    }
+
+    private long proximoId() {
+        siguiente = siguiente % (ids * 2L) + 7;
+        return siguiente;
+    }
+}
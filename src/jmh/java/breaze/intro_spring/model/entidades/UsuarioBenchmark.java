@@ -0,0 +1,39 @@
+package breaze.intro_spring.model.entidades;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de la conversión de roles en autoridades de Usuario.getAuthorities.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UsuarioBenchmark {
+
+    private Usuario usuario;
+
+    @Setup
+    public void setup() {
+        usuario = new Usuario();
+        usuario.setUsername("benchmark");
+        usuario.setRoles(Set.of(rol(1L, "USER"), rol(2L, "ADMIN"), rol(3L, "EDITOR")));
+    }
+
+    private static Rol rol(Long id, String nombre) {
+        Rol rol = new Rol();
+        rol.setId(id);
+        rol.setNombre(nombre);
+        return rol;
+    }
+
+    @Benchmark
+    public Object getAuthorities() {
+        return usuario.getAuthorities();
+    }
+}
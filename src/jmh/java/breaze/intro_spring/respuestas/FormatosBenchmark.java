@@ -0,0 +1,104 @@
+package breaze.intro_spring.respuestas;
+
+import breaze.intro_spring.model.dto.CrearLibroInDTO;
+import breaze.intro_spring.model.dto.LibroDTO;
+import breaze.intro_spring.model.dto.PaginaDTO;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Benchmark de serialización de una página de /libro/consultar y de lectura de un lote de CrearLibroInDTO
+ * en JSON, Smile y CBOR, con y sin gzip. Al iniciar cada formato imprime el tamaño de los cuerpos.
+ * Ejecutar con: mvn -Pjmh test-compile exec:exec -Djmh.include=FormatosBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FormatosBenchmark {
+
+    private static final String[] IDIOMAS = {"es", "en", "fr", "pt"};
+
+    @Param({"JSON", "SMILE", "CBOR"})
+    public Formato formato;
+
+    @Param({"500"})
+    public int libros;
+
+    private PaginaDTO<LibroDTO> pagina;
+    private ObjectWriter paginaWriter;
+    private ObjectReader loteReader;
+    private byte[] lote;
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(42);
+        List<LibroDTO> contenido = new ArrayList<>(libros);
+        List<CrearLibroInDTO> entrada = new ArrayList<>(libros);
+        for (int i = 0; i < libros; i++) {
+            long autor = 1 + random.nextInt(200);
+            String titulo = "Libro de prueba número " + i;
+            int anio = 1900 + random.nextInt(125);
+            String idioma = IDIOMAS[random.nextInt(IDIOMAS.length)];
+            String isbn = "978-" + (1_000_000_000L + random.nextInt(999_999_999));
+            int paginas = 80 + random.nextInt(900);
+            contenido.add(new LibroDTO((long) i + 1, titulo, anio, autor, "Autor " + autor, isbn, paginas, idioma));
+            CrearLibroInDTO libro = new CrearLibroInDTO();
+            libro.setTitulo(titulo);
+            libro.setAnioPublicacion(anio);
+            libro.setAutor(autor);
+            libro.setIsbn(isbn);
+            libro.setNumPaginas(paginas);
+            libro.setIdioma(idioma);
+            entrada.add(libro);
+        }
+        pagina = new PaginaDTO<>(contenido, (long) libros);
+
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+        ObjectMapper mapper = new MapeadoresFormato(json, Jackson2ObjectMapperBuilder.json()).mapper(formato);
+        paginaWriter = mapper.writerFor(new TypeReference<PaginaDTO<LibroDTO>>() { });
+        loteReader = mapper.readerFor(new TypeReference<List<CrearLibroInDTO>>() { });
+        lote = mapper.writeValueAsBytes(entrada);
+
+        byte[] cuerpo = paginaWriter.writeValueAsBytes(pagina);
+        System.out.printf("%n%s: página de %d libros = %d bytes, con gzip = %d bytes; lote de entrada = %d bytes%n",
+                formato, libros, cuerpo.length, gzip(cuerpo).length, lote.length);
+    }
+
+    @Benchmark
+    public byte[] serializar() throws IOException {
+        return paginaWriter.writeValueAsBytes(pagina);
+    }
+
+    @Benchmark
+    public byte[] serializarGzip() throws IOException {
+        return gzip(paginaWriter.writeValueAsBytes(pagina));
+    }
+
+    @Benchmark
+    public List<CrearLibroInDTO> deserializarLote() throws IOException {
+        return loteReader.readValue(lote);
+    }
+
+    private static byte[] gzip(byte[] datos) throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(datos.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida, 8192)) {
+            gzip.write(datos);
+        }
+        return salida.toByteArray();
+    }
+}
@@ -0,0 +1,35 @@
+package breaze.intro_spring.services.impl;
+
+import breaze.intro_spring.model.dto.LibroCategoriaDTO;
+import breaze.intro_spring.model.entidades.LibroCategoria;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark del mapeo de LibroCategoriaDTO a la entidad LibroCategoria usado al crear libros.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LibroServiceBenchmark {
+
+    private LibroCategoriaDTO dto;
+
+    @Setup
+    public void setup() {
+        dto = new LibroCategoriaDTO();
+        dto.setCategoria(3L);
+        dto.setPrioridad(1);
+        dto.setComentario("Categoría principal");
+    }
+
+    @Benchmark
+    public LibroCategoria libroCategoriaDTOToEntity() {
+        return LibroService.libroCategoriaDTOToEntity(dto, 42L, LocalDateTime.now());
+    }
+}
@@ -2,8 +2,16 @@ package breaze.intro_spring;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// R2DBC solo lo usa la aplicación reactiva (breaze.intro_spring.reactivo.ReactivoApplication)
+@SpringBootApplication(exclude = {R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class,
+		R2dbcDataAutoConfiguration.class, R2dbcRepositoriesAutoConfiguration.class})
+@EnableScheduling
 public class IntroSpringApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,115 @@
+package breaze.intro_spring.auditoria;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Cola circular acotada y sin bloqueos para varios productores y un único consumidor.
+ * Cada celda lleva un número de secuencia que indica si está libre para la vuelta actual del productor
+ * o ya contiene un elemento publicado para el consumidor, de modo que los productores solo compiten
+ * por un compareAndSet sobre el cursor de escritura y nunca esperan al consumidor: si la cola está llena,
+ * {@link #ofrecer} devuelve false y el llamador decide cómo aplicar contrapresión.
+ * @param <T> tipo de los elementos
+ */
+public class BufferAnillo<T> {
+
+    private final int capacidad;
+    private final int mascara;
+    private final AtomicReferenceArray<T> elementos;
+    /**
+     * Secuencia de cada celda: igual a la posición de escritura si está libre, posición + 1 si tiene un elemento publicado.
+     */
+    private final AtomicLongArray secuencias;
+    /**
+     * Siguiente posición de escritura, compartida por los productores.
+     */
+    private final AtomicLong escritura = new AtomicLong();
+    /**
+     * Siguiente posición de lectura. Solo la modifica el consumidor; es volatile para que {@link #tamanio} la vea.
+     */
+    private volatile long lectura;
+
+    /**
+     * @param capacidad número mínimo de elementos; se redondea a la siguiente potencia de dos
+     */
+    public BufferAnillo(int capacidad) {
+        if (capacidad < 2 || capacidad > (1 << 30)) {
+            throw new IllegalArgumentException("Capacidad fuera de rango: " + capacidad);
+        }
+        this.capacidad = Integer.highestOneBit(capacidad - 1) << 1;
+        this.mascara = this.capacidad - 1;
+        this.elementos = new AtomicReferenceArray<>(this.capacidad);
+        this.secuencias = new AtomicLongArray(this.capacidad);
+        for (int i = 0; i < this.capacidad; i++) {
+            secuencias.set(i, i);
+        }
+    }
+
+    /**
+     * Añade un elemento si hay espacio. Puede llamarse desde cualquier hilo.
+     * @param elemento elemento no nulo
+     * @return false si la cola está llena
+     */
+    public boolean ofrecer(T elemento) {
+        long posicion = escritura.get();
+        while (true) {
+            int indice = (int) posicion & mascara;
+            long diferencia = secuencias.get(indice) - posicion;
+            if (diferencia == 0) {
+                if (escritura.compareAndSet(posicion, posicion + 1)) {
+                    elementos.set(indice, elemento);
+                    // Publica el elemento: el consumidor lee la secuencia antes que la celda
+                    secuencias.set(indice, posicion + 1);
+                    return true;
+                }
+                posicion = escritura.get();
+            } else if (diferencia < 0) {
+                // La celda aún guarda un elemento de la vuelta anterior: la cola está llena
+                return false;
+            } else {
+                // Otro productor ocupó esta posición
+                posicion = escritura.get();
+            }
+        }
+    }
+
+    /**
+     * Extrae hasta {@code maximo} elementos en orden de publicación. Solo debe llamarlo el consumidor.
+     * @param destino receptor de los elementos extraídos
+     * @param maximo número máximo de elementos
+     * @return número de elementos extraídos
+     */
+    public int drenar(Consumer<? super T> destino, int maximo) {
+        long posicion = lectura;
+        int extraidos = 0;
+        while (extraidos < maximo) {
+            int indice = (int) posicion & mascara;
+            if (secuencias.get(indice) != posicion + 1) {
+                break;
+            }
+            T elemento = elementos.get(indice);
+            elementos.set(indice, null);
+            // Libera la celda para la siguiente vuelta de los productores
+            secuencias.set(indice, posicion + capacidad);
+            posicion++;
+            extraidos++;
+            destino.accept(elemento);
+        }
+        lectura = posicion;
+        return extraidos;
+    }
+
+    /**
+     * @return número aproximado de elementos pendientes
+     */
+    public int tamanio() {
+        long pendientes = escritura.get() - lectura;
+        return (int) Math.max(0, Math.min(pendientes, capacidad));
+    }
+
+    public int getCapacidad() {
+        return capacidad;
+    }
+}
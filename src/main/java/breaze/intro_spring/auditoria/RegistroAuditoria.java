@@ -0,0 +1,262 @@
+package breaze.intro_spring.auditoria;
+
+import breaze.intro_spring.eventos.CambioCatalogoEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Registro de auditoría de los cambios del catálogo (crear, actualizar, actualización parcial y eliminar
+ * autores y libros, y alta de categorías de libros) en la tabla evento_auditoria, escrito en segundo plano para no alargar las escrituras.
+ * Tras el commit de cada cambio el hilo de la petición solo encola el evento en un BufferAnillo; un único
+ * hilo escritor lo drena y lo inserta en lotes JDBC, cada uno en su propia transacción.
+ * Contrapresión: si el buffer está lleno el productor espera hasta auditoria.espera-maxima-ms a que se libere
+ * espacio y, si no lo consigue, inserta su evento de forma síncrona, así que un escritor lento frena a los
+ * productores en lugar de perder eventos. Al cerrar la aplicación se detiene el escritor después del servidor web
+ * y se vacía el buffer antes de cerrar el pool de conexiones.
+ * Los eventos insertados por el camino síncrono pueden quedar con un id anterior a otros encolados antes;
+ * la columna fecha conserva el orden real de los cambios.
+ */
+@Component
+public class RegistroAuditoria implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(RegistroAuditoria.class);
+
+    private static final String INSERT_EVENTO =
+            "insert into evento_auditoria (entidad, operacion, entidad_id, datos, usuario, fecha) values (?, ?, ?, ?, ?, ?)";
+    /**
+     * Reintentos de un lote antes de descartarlo, con espera creciente entre intentos.
+     */
+    private static final int REINTENTOS = 3;
+
+    /**
+     * Evento pendiente de escribir. Los datos se serializan en el hilo escritor.
+     */
+    private record Registro(CambioCatalogoEvent evento, String usuario, Instant fecha) {
+    }
+
+    private final BufferAnillo<Registro> buffer;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int tamanioLote;
+    private final long intervaloNanos;
+    private final long esperaMaximaNanos;
+    private final long esperaCierreMillis;
+
+    /**
+     * Eventos escritos por el hilo escritor, escritos en el hilo del productor y descartados tras agotar los reintentos.
+     */
+    private final LongAdder escritos = new LongAdder();
+    private final LongAdder sincronos = new LongAdder();
+    private final LongAdder perdidos = new LongAdder();
+
+    private volatile boolean activo;
+    private volatile Thread escritor;
+
+    public RegistroAuditoria(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper, ObjectProvider<MeterRegistry> registry,
+                             @Value("${auditoria.capacidad:8192}") int capacidad,
+                             @Value("${auditoria.tamanio-lote:500}") int tamanioLote,
+                             @Value("${auditoria.intervalo-ms:20}") long intervaloMs,
+                             @Value("${auditoria.espera-maxima-ms:50}") long esperaMaximaMs,
+                             @Value("${auditoria.espera-cierre-ms:10000}") long esperaCierreMs) {
+        this.buffer = new BufferAnillo<>(capacidad);
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Se escribe fuera de la transacción del cambio, que ya se confirmó
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.objectMapper = objectMapper;
+        this.tamanioLote = Math.max(1, tamanioLote);
+        this.intervaloNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, intervaloMs));
+        this.esperaMaximaNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, esperaMaximaMs));
+        this.esperaCierreMillis = esperaCierreMs;
+        registry.ifAvailable(this::registrarMetricas);
+    }
+
+    /**
+     * Encola un cambio del catálogo confirmado, o lo escribe de inmediato si el escritor no está activo
+     * o el buffer sigue lleno tras la espera máxima.
+     * @param evento cambio publicado por los servicios
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarCatalogo(CambioCatalogoEvent evento) {
+        Registro registro = new Registro(evento, usuarioActual(), Instant.now());
+        if (activo && encolar(registro)) {
+            return;
+        }
+        escribirConReintentos(List.of(registro), sincronos);
+    }
+
+    private boolean encolar(Registro registro) {
+        if (buffer.ofrecer(registro)) {
+            return true;
+        }
+        long limite = System.nanoTime() + esperaMaximaNanos;
+        do {
+            // Despierta al escritor y cede brevemente hasta que libere espacio
+            LockSupport.unpark(escritor);
+            LockSupport.parkNanos(50_000);
+            if (buffer.ofrecer(registro)) {
+                return true;
+            }
+        } while (activo && System.nanoTime() < limite);
+        return false;
+    }
+
+    /**
+     * Bucle del hilo escritor: drena el buffer por lotes y duerme un intervalo cuando está vacío.
+     * Al desactivarse hace una última pasada para no dejar eventos encolados.
+     */
+    private void ejecutar() {
+        List<Registro> lote = new ArrayList<>(tamanioLote);
+        while (true) {
+            boolean seguir = activo;
+            buffer.drenar(lote::add, tamanioLote);
+            if (!lote.isEmpty()) {
+                escribirConReintentos(lote, escritos);
+                lote.clear();
+            } else if (!seguir) {
+                return;
+            } else {
+                LockSupport.parkNanos(intervaloNanos);
+            }
+        }
+    }
+
+    /**
+     * Inserta un lote en su propia transacción, reintentándolo ante errores transitorios de la base de datos.
+     * @param lote eventos a insertar
+     * @param contador contador de eventos escritos por este camino
+     */
+    private void escribirConReintentos(List<Registro> lote, LongAdder contador) {
+        for (int intento = 1; ; intento++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> insertar(lote));
+                contador.add(lote.size());
+                return;
+            } catch (RuntimeException e) {
+                if (intento >= REINTENTOS) {
+                    perdidos.add(lote.size());
+                    log.error("No se pudieron escribir {} eventos de auditoría", lote.size(), e);
+                    return;
+                }
+                log.warn("Fallo al escribir {} eventos de auditoría, intento {} de {}", lote.size(), intento, REINTENTOS, e);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100L << intento));
+            }
+        }
+    }
+
+    private void insertar(List<Registro> lote) {
+        jdbcTemplate.batchUpdate(INSERT_EVENTO, lote, lote.size(), (ps, registro) -> {
+            CambioCatalogoEvent evento = registro.evento();
+            ps.setString(1, evento.entidad().name());
+            ps.setString(2, evento.operacion().name());
+            ps.setObject(3, evento.id());
+            ps.setString(4, serializar(evento.datos()));
+            ps.setString(5, registro.usuario());
+            ps.setTimestamp(6, Timestamp.from(registro.fecha()));
+        });
+    }
+
+    private String serializar(Object datos) {
+        if (datos == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(datos);
+        } catch (JsonProcessingException e) {
+            log.warn("No se pudieron serializar los datos de un evento de auditoría", e);
+            return null;
+        }
+    }
+
+    private static String usuarioActual() {
+        Authentication autenticacion = SecurityContextHolder.getContext().getAuthentication();
+        return autenticacion == null ? null : autenticacion.getName();
+    }
+
+    @Override
+    public void start() {
+        activo = true;
+        escritor = Thread.ofPlatform().name("auditoria-escritor").daemon().start(this::ejecutar);
+    }
+
+    /**
+     * Detiene el escritor esperando a que vacíe el buffer. Los eventos que lleguen después se escriben de forma síncrona.
+     */
+    @Override
+    public void stop() {
+        activo = false;
+        Thread hilo = escritor;
+        if (hilo == null) {
+            return;
+        }
+        LockSupport.unpark(hilo);
+        try {
+            hilo.join(esperaCierreMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (hilo.isAlive()) {
+            log.warn("El escritor de auditoría no terminó en {} ms; quedan {} eventos pendientes", esperaCierreMillis, buffer.tamanio());
+            return;
+        }
+        // Eventos encolados por productores que vieron el escritor activo justo antes de detenerlo
+        List<Registro> restantes = new ArrayList<>();
+        buffer.drenar(restantes::add, Integer.MAX_VALUE);
+        if (!restantes.isEmpty()) {
+            escribirConReintentos(restantes, escritos);
+        }
+        log.info("Registro de auditoría detenido: {} eventos escritos en segundo plano, {} síncronos, {} perdidos",
+                escritos.sum(), sincronos.sum(), perdidos.sum());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return activo;
+    }
+
+    /**
+     * Fase menor que la del servidor web: arranca antes y se detiene después de que deje de aceptar peticiones.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void registrarMetricas(MeterRegistry registry) {
+        Gauge.builder("biblioteca.auditoria.pendientes", buffer, BufferAnillo::tamanio)
+                .description("Eventos de auditoría encolados pendientes de escribir")
+                .register(registry);
+        FunctionCounter.builder("biblioteca.auditoria.eventos", escritos, LongAdder::sum)
+                .tag("resultado", "asincrono").register(registry);
+        FunctionCounter.builder("biblioteca.auditoria.eventos", sincronos, LongAdder::sum)
+                .tag("resultado", "sincrono").register(registry);
+        FunctionCounter.builder("biblioteca.auditoria.eventos", perdidos, LongAdder::sum)
+                .tag("resultado", "perdido").register(registry);
+    }
+}
@@ -1,13 +1,19 @@
 package breaze.intro_spring.auth;
 
+import breaze.intro_spring.model.entidades.Usuario;
 import breaze.intro_spring.repositorios.UsuarioRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 /**
  * Configuración de autenticación y seguridad para la aplicación.
@@ -24,12 +30,65 @@ public class AuthConfig {
     private final UsuarioRepository usuarioRepository;
 
     /**
-     * Bean para la codificación de contraseñas usando BCrypt.
+     * Bean para la codificación de contraseñas usando BCrypt con un coste configurable.
+     * Marca para re-codificar cualquier hash cuyo coste sea distinto del configurado,
+     * de modo que al cambiar la propiedad los hashes se migran en el siguiente login.
+     * @param strength coste (log2 de rondas) de BCrypt
      * @return PasswordEncoder seguro para almacenar contraseñas
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.bcrypt.strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength) {
+            @Override
+            public boolean upgradeEncoding(String encodedPassword) {
+                // Formato $2a$10$...: el coste ocupa las posiciones 4 y 5
+                if (encodedPassword == null || encodedPassword.length() < 7) {
+                    return false;
+                }
+                try {
+                    return Integer.parseInt(encodedPassword.substring(4, 6)) != strength;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        };
+    }
+
+    /**
+     * Bean que persiste el nuevo hash cuando Spring Security re-codifica una contraseña tras un login correcto.
+     * @return UserDetailsPasswordService que actualiza la contraseña del usuario
+     */
+    @Bean
+    public UserDetailsPasswordService userDetailsPasswordService() {
+        return (user, newPassword) -> {
+            Usuario usuario = (Usuario) user;
+            usuario.setPassword(newPassword);
+            return usuarioRepository.save(usuario);
+        };
+    }
+
+    /**
+     * Executor dedicado a BCrypt para no ocupar los hilos de Tomcat durante el hashing.
+     * La cola es acotada: si se llena, la petición se rechaza en lugar de acumular trabajo.
+     * Recibe el mismo TaskDecorator que el applicationTaskExecutor, para conservar el contexto de la petición.
+     * @param poolSize número de hilos (por defecto, número de procesadores)
+     * @param queueCapacity tamaño máximo de la cola de tareas pendientes
+     * @param taskDecorator decorador de tareas definido en la aplicación, si hay uno
+     * @return executor para operaciones de hashing
+     */
+    @Bean
+    public ThreadPoolTaskExecutor hashingExecutor(
+            @Value("${security.hashing.pool-size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int poolSize,
+            @Value("${security.hashing.queue-capacity:200}") int queueCapacity,
+            ObjectProvider<TaskDecorator> taskDecorator) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("hashing-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        taskDecorator.ifUnique(executor::setTaskDecorator);
+        return executor;
     }
 
     /**
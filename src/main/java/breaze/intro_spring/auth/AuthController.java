@@ -5,10 +5,14 @@ import breaze.intro_spring.model.entidades.Rol;
 import breaze.intro_spring.model.entidades.Usuario;
 import breaze.intro_spring.repositorios.RolRepository;
 import breaze.intro_spring.repositorios.UsuarioRepository;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.AccountStatusUserDetailsChecker;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
@@ -17,10 +21,12 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Controlador para la autenticación y registro de usuarios.
- * Proporciona endpoints para login y registro, así como manejo de errores de autenticación.
+ * Proporciona endpoints para login, registro, renovación y revocación de tokens, así como manejo de errores de autenticación.
  * Utiliza JWT para la generación de tokens y roles para la autorización.
  */
 @RestController
@@ -28,9 +34,10 @@ import java.util.Set;
 @RequiredArgsConstructor
 public class AuthController {
     /**
-     * AuthenticationManager de Spring Security para autenticar usuarios.
+     * Comprobaciones de estado de la cuenta (habilitada, no bloqueada, no expirada) tras verificar la contraseña.
      */
-    private final AuthenticationManager authManager;
+    private static final AccountStatusUserDetailsChecker ESTADO_CUENTA = new AccountStatusUserDetailsChecker();
+
     /**
      * Repositorio para la gestión de usuarios.
      */
@@ -43,34 +50,110 @@ public class AuthController {
      * Servicio para la gestión de JWT.
      */
     private final JwtService jwt;
+    /**
+     * Servicio para la emisión y rotación de refresh tokens.
+     */
+    private final RefreshTokenService refreshTokens;
+    /**
+     * Servicio de revocación de access tokens.
+     */
+    private final RevocationService revocationService;
     /**
      * PasswordEncoder para encriptar contraseñas.
      */
     private final PasswordEncoder passwordEncoder;
+    /**
+     * Servicio que guarda el hash re-codificado cuando cambia el coste de BCrypt.
+     */
+    private final UserDetailsPasswordService passwordService;
+    /**
+     * Executor donde se ejecuta BCrypt, fuera de los hilos de Tomcat. Solo recibe el cálculo del hash.
+     */
+    @Qualifier("hashingExecutor")
+    private final Executor hashingExecutor;
+    /**
+     * Executor de Spring donde continúan las peticiones tras el hashing (accesos a la base de datos y emisión de tokens),
+     * para no ocupar hilos del executor de hashing esperando a la base de datos.
+     */
+    @Qualifier("applicationTaskExecutor")
+    private final Executor tareasExecutor;
+    /**
+     * Hash de una contraseña ficticia, comparado cuando el usuario no existe para que la respuesta tarde lo mismo.
+     */
+    private volatile String hashUsuarioInexistente;
+
+    /**
+     * Resultado de verificar una contraseña en el executor de hashing.
+     * @param valida true si la contraseña coincide
+     * @param nuevoHash hash re-codificado con el coste actual, o null si no hace falta migrarlo
+     */
+    private record Verificacion(boolean valida, String nuevoHash) {
+    }
 
     /**
      * Endpoint para el login de usuarios.
-     * Autentica las credenciales y retorna un token JWT si son válidas.
+     * El usuario se busca en el hilo de la petición; solo la verificación BCrypt se envía al executor de hashing,
+     * y la emisión de tokens continúa en el executor de tareas de Spring.
      * @param req mapa con username y password
      * @return mapa con el token, tipo y roles
      */
     @PostMapping("/login")
-    public Map<String, Object> login(@RequestBody Map<String, String> req) {
+    public CompletableFuture<Map<String, Object>> login(@RequestBody Map<String, String> req) {
         String username = req.get("username");
         String password = req.get("password");
 
+        Usuario user = username == null ? null : usuarioRepo.findByUsername(username).orElse(null);
+
         // Si las credenciales son incorrectas, lanza AuthenticationException → 401 por defecto
-        authManager.authenticate(new UsernamePasswordAuthenticationToken(username, password));
+        return CompletableFuture
+                .supplyAsync(() -> verificar(password, user), hashingExecutor)
+                .thenApplyAsync(verificacion -> {
+                    if (user == null || !verificacion.valida()) {
+                        throw new BadCredentialsException("Bad credentials");
+                    }
+                    ESTADO_CUENTA.check(user);
+                    if (verificacion.nuevoHash() != null) {
+                        passwordService.updatePassword(user, verificacion.nuevoHash());
+                    }
+                    var roles = user.getRoles().stream().map(Rol::getNombre).toList();
+                    String token = jwt.generate(user.getUsername(), roles);
 
-        var user = usuarioRepo.findByUsername(username).orElseThrow();
-        var roles = user.getRoles().stream().map(Rol::getNombre).toList();
-        String token = jwt.generate(user.getUsername(), roles);
+                    return Map.of(
+                            "access_token", token,
+                            "refresh_token", refreshTokens.emitir(user.getId()),
+                            "token_type", "Bearer",
+                            "roles", roles
+                    );
+                }, tareasExecutor);
+    }
 
-        return Map.of(
-                "access_token", token,
-                "token_type", "Bearer",
-                "roles", roles
-        );
+    /**
+     * Compara la contraseña con el hash del usuario y, si coincide y el coste de BCrypt cambió, calcula el nuevo hash.
+     * Si el usuario no existe compara contra un hash ficticio, igual que DaoAuthenticationProvider.
+     * Se ejecuta en el executor de hashing.
+     */
+    private Verificacion verificar(String password, Usuario user) {
+        if (password == null) {
+            return new Verificacion(false, null);
+        }
+        if (user == null) {
+            passwordEncoder.matches(password, hashUsuarioInexistente());
+            return new Verificacion(false, null);
+        }
+        if (!passwordEncoder.matches(password, user.getPassword())) {
+            return new Verificacion(false, null);
+        }
+        String nuevoHash = passwordEncoder.upgradeEncoding(user.getPassword()) ? passwordEncoder.encode(password) : null;
+        return new Verificacion(true, nuevoHash);
+    }
+
+    private String hashUsuarioInexistente() {
+        String hash = hashUsuarioInexistente;
+        if (hash == null) {
+            hash = passwordEncoder.encode("usuarioInexistente");
+            hashUsuarioInexistente = hash;
+        }
+        return hash;
     }
 
     /**
@@ -81,7 +164,7 @@ public class AuthController {
      */
     @PostMapping("/register")
     @ResponseStatus(HttpStatus.CREATED)
-    public Map<String, Object> register(@RequestBody RegisterRequest req) {
+    public CompletableFuture<Map<String, Object>> register(@RequestBody RegisterRequest req) {
         if (req.getUsername() == null || req.getPassword() == null) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Missing username or password");
         }
@@ -104,23 +187,67 @@ public class AuthController {
             rolEntities.add(rol);
         }
 
-        Usuario user = new Usuario();
-        user.setUsername(req.getUsername());
-        user.setPassword(passwordEncoder.encode(req.getPassword()));
-        user.setRoles(rolEntities);
+        // El hash de la contraseña se calcula en el executor de hashing; el guardado continúa en el executor de tareas
+        return CompletableFuture
+                .supplyAsync(() -> passwordEncoder.encode(req.getPassword()), hashingExecutor)
+                .thenApplyAsync(hash -> {
+                    Usuario user = new Usuario();
+                    user.setUsername(req.getUsername());
+                    user.setPassword(hash);
+                    user.setRoles(rolEntities);
+
+                    usuarioRepo.save(user);
+
+                    List<String> roles = rolEntities.stream().map(Rol::getNombre).toList();
+                    String token = jwt.generate(user.getUsername(), roles);
 
-        usuarioRepo.save(user);
+                    return Map.of(
+                            "access_token", token,
+                            "refresh_token", refreshTokens.emitir(user.getId()),
+                            "token_type", "Bearer",
+                            "roles", roles
+                    );
+                }, tareasExecutor);
+    }
+
+    /**
+     * Endpoint para renovar el access token sin volver a enviar la contraseña.
+     * Consume el refresh token recibido y devuelve uno nuevo junto con el access token.
+     * @param req mapa con refresh_token
+     * @return mapa con el nuevo token, el nuevo refresh token, tipo y roles
+     */
+    @PostMapping("/refresh")
+    public Map<String, Object> refresh(@RequestBody Map<String, String> req) {
+        // Si el refresh token no es válido, lanza BadCredentialsException → 401
+        RefreshTokenService.Rotacion rotacion = refreshTokens.rotar(req.get("refresh_token"));
 
-        List<String> roles = rolEntities.stream().map(Rol::getNombre).toList();
-        String token = jwt.generate(user.getUsername(), roles);
+        Usuario user = usuarioRepo.findById(rotacion.usuarioId())
+                .filter(Usuario::isEnabled)
+                .orElseThrow(() -> new BadCredentialsException("Usuario no disponible"));
+        var roles = user.getRoles().stream().map(Rol::getNombre).toList();
 
         return Map.of(
-                "access_token", token,
+                "access_token", jwt.generate(user.getUsername(), roles),
+                "refresh_token", rotacion.refreshToken(),
                 "token_type", "Bearer",
                 "roles", roles
         );
     }
 
+    /**
+     * Endpoint para cerrar sesión revocando el access token enviado en la cabecera Authorization.
+     * El token deja de aceptarse de inmediato aunque no haya expirado.
+     * @param authorization cabecera Authorization con el token Bearer
+     */
+    @PostMapping("/logout")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void logout(@RequestHeader("Authorization") String authorization) {
+        Claims claims = jwt.parse(authorization);
+        if (claims.getId() != null) {
+            revocationService.revocar(claims.getId(), claims.getExpiration().toInstant());
+        }
+    }
+
     /**
      * Maneja errores de autenticación devolviendo un mensaje estándar.
      * @param e excepción de autenticación
@@ -131,4 +258,15 @@ public class AuthController {
     public Map<String, String> onAuthError(Exception e) {
         return Map.of("error", "Bad credentials");
     }
-}
\ No newline at end of file
+
+    /**
+     * Responde 503 cuando el executor de hashing está saturado.
+     * @param e excepción de rechazo de la tarea
+     * @return mapa con el error
+     */
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    @ExceptionHandler(TaskRejectedException.class)
+    public Map<String, String> onHashingSaturado(TaskRejectedException e) {
+        return Map.of("error", "Servicio ocupado, intente de nuevo");
+    }
+}
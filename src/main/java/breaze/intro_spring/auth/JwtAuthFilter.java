@@ -5,13 +5,11 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
 
 /**
  * Filtro de autenticación JWT para Spring Security.
@@ -26,13 +24,25 @@ public class JwtAuthFilter extends OncePerRequestFilter {
      * Servicio para la gestión y validación de tokens JWT.
      */
     private final JwtService jwtService;
+    /**
+     * Caché de tokens ya verificados para no repetir la validación en cada petición.
+     */
+    private final JwtTokenCache tokenCache;
+    /**
+     * Servicio que indica si un token fue revocado antes de su expiración.
+     */
+    private final RevocationService revocationService;
 
     /**
-     * Constructor que inyecta el servicio JWT.
+     * Constructor que inyecta el servicio JWT, la caché de tokens y el servicio de revocación.
      * @param jwtService servicio para parsear y validar tokens
+     * @param tokenCache caché de tokens verificados
+     * @param revocationService servicio de revocación de tokens
      */
-    public JwtAuthFilter(JwtService jwtService) {
+    public JwtAuthFilter(JwtService jwtService, JwtTokenCache tokenCache, RevocationService revocationService) {
         this.jwtService = jwtService;
+        this.tokenCache = tokenCache;
+        this.revocationService = revocationService;
     }
 
     /**
@@ -58,23 +68,18 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         // Extrae el token JWT
         String token = header.substring(7);
         try {
-            // Parsea y valida el token
-            io.jsonwebtoken.Claims claims = jwtService.parse(token);
-            String username = claims.getSubject();
-
-            @SuppressWarnings("unchecked")
-            List<String> roles = (List<String>) claims.get("roles");
-
-            // Convierte los roles en autoridades de Spring Security
-            List<SimpleGrantedAuthority> authorities =
-                    (roles == null ? List.<String>of() : roles).stream()
-                            .map(r -> r.startsWith("ROLE_") ? r : "ROLE_" + r)
-                            .map(SimpleGrantedAuthority::new)
-                            .toList();
+            // Obtiene el usuario y sus autoridades desde la caché o validando el token
+            JwtTokenCache.Entrada entrada = tokenCache.resolver(token, jwtService::verificar);
+            if (revocationService.estaRevocado(entrada.jti())) {
+                // Un token revocado se trata igual que uno inválido
+                SecurityContextHolder.clearContext();
+                chain.doFilter(req, res);
+                return;
+            }
 
             // Crea el token de autenticación y lo establece en el contexto
             UsernamePasswordAuthenticationToken auth =
-                    new UsernamePasswordAuthenticationToken(username, "N/A", authorities);
+                    new UsernamePasswordAuthenticationToken(entrada.username(), "N/A", entrada.authorities());
 
             SecurityContextHolder.getContext().setAuthentication(auth);
         } catch (Exception e) {
@@ -2,17 +2,18 @@ package breaze.intro_spring.auth;
 
 // Importa las clases necesarias para trabajar con JWT
 import io.jsonwebtoken.Claims; // Representa los claims (información) dentro del token JWT
+import io.jsonwebtoken.JwtParser; // Parser inmutable y seguro para hilos
 import io.jsonwebtoken.Jwts; // Utilidad principal para construir y parsear JWT
 import io.jsonwebtoken.io.Decoders; // Utilidad para decodificar la clave secreta en base64
 import io.jsonwebtoken.security.Keys; // Utilidad para generar la clave secreta
 import org.springframework.beans.factory.annotation.Value; // Permite inyectar valores desde application.properties
+import org.springframework.security.core.authority.SimpleGrantedAuthority; // Autoridad de Spring Security derivada de un rol
 import org.springframework.stereotype.Service; // Marca la clase como un servicio de Spring
 
 import javax.crypto.SecretKey; // Clave secreta para firmar/verificar JWT
-import java.time.Instant; // Representa un instante de tiempo
 import java.util.Date; // Fecha para issuedAt y expiration
 import java.util.List; // Lista de roles
-import java.util.Map; // Mapa para claims personalizados
+import java.util.UUID; // Identificador único (jti) de cada token
 
 /**
  * Servicio para la gestión de tokens JWT.
@@ -26,9 +27,13 @@ public class JwtService {
      */
     private final SecretKey key;
     /**
-     * Tiempo de expiración de los tokens en minutos.
+     * Tiempo de expiración de los tokens en milisegundos.
      */
-    private final long expMinutes;
+    private final long expMillis;
+    /**
+     * Parser configurado una sola vez con la clave. Es inmutable y se comparte entre hilos.
+     */
+    private final JwtParser parser;
 
     /**
      * Constructor que inicializa la clave secreta y el tiempo de expiración.
@@ -42,7 +47,11 @@ public class JwtService {
         // Genera la clave secreta para firmar/verificar JWT
         this.key = Keys.hmacShaKeyFor(raw);
         // Guarda el tiempo de expiración configurado
-        this.expMinutes = expMinutes;
+        this.expMillis = expMinutes * 60_000L;
+        // Construye el parser una única vez en lugar de hacerlo en cada petición
+        this.parser = Jwts.parser()
+                .verifyWith(key)
+                .build();
     }
 
     /**
@@ -52,16 +61,16 @@ public class JwtService {
      * @return token JWT firmado
      */
     public String generate(String subject, List<String> roles) {
-        Instant now = Instant.now(); // Obtiene el instante actual
+        long now = System.currentTimeMillis(); // Obtiene el instante actual
         List<String> safeRoles = roles == null ? List.of() : roles; // Asegura que la lista de roles no sea nula
         // Construye el token JWT
         return Jwts.builder()
+                .id(UUID.randomUUID().toString()) // Identificador único usado para revocar el token
                 .subject(subject) // Establece el sujeto (username)
-                .claims(Map.of("roles", safeRoles)) // Agrega los roles como claim personalizado
-                .issuedAt(Date.from(now)) // Fecha de emisión
-                .expiration(Date.from(now.plusSeconds(expMinutes * 60))) // Fecha de expiración
-                // Firma el token con la clave y algoritmo seguro
-                .signWith(key)
+                .claim("roles", safeRoles) // Agrega los roles como claim personalizado
+                .issuedAt(new Date(now)) // Fecha de emisión
+                .expiration(new Date(now + expMillis)) // Fecha de expiración
+                // Firma el token con la clave usando HS256
                 .signWith(key, Jwts.SIG.HS256)
                 .compact(); // Finaliza y retorna el token JWT
     }
@@ -76,11 +85,32 @@ public class JwtService {
         if (token.startsWith("Bearer ")) {
             token = token.substring(7);
         }
-        // Parsea y valida el token JWT, devolviendo los claims
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
+        // Parsea y valida el token JWT con el parser compartido, devolviendo los claims
+        return parser
                 .parseSignedClaims(token)
                 .getPayload();
     }
+
+    /**
+     * Parsea y valida el token, convirtiendo sus roles en autoridades de Spring Security.
+     * Lo usan tanto JwtAuthFilter como el filtro reactivo cuando el token no está en caché.
+     * @param token token JWT
+     * @return entrada con el usuario, sus autoridades y la expiración del token
+     */
+    public JwtTokenCache.Entrada verificar(String token) {
+        Claims claims = parse(token);
+
+        @SuppressWarnings("unchecked")
+        List<String> roles = (List<String>) claims.get("roles");
+
+        // Convierte los roles en autoridades de Spring Security
+        List<SimpleGrantedAuthority> authorities =
+                (roles == null ? List.<String>of() : roles).stream()
+                        .map(r -> r.startsWith("ROLE_") ? r : "ROLE_" + r)
+                        .map(SimpleGrantedAuthority::new)
+                        .toList();
+
+        Date exp = claims.getExpiration();
+        return new JwtTokenCache.Entrada(claims.getId(), claims.getSubject(), authorities, exp == null ? 0L : exp.getTime());
+    }
 }
@@ -0,0 +1,155 @@
+package breaze.intro_spring.auth;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Caché acotada de tokens JWT ya verificados.
+ * Evita repetir la verificación de la firma HMAC y el parseo de los claims cuando un cliente
+ * reutiliza el mismo token en muchas peticiones.
+ * Las entradas se indexan por el hash SHA-256 del token y dejan de ser válidas al llegar el claim exp.
+ */
+@Component
+public class JwtTokenCache {
+
+    /**
+     * Datos resueltos de un token verificado.
+     * @param jti identificador del token, usado para comprobar revocaciones
+     * @param username sujeto del token
+     * @param authorities autoridades inmutables derivadas del claim roles
+     * @param expiraEn instante de expiración del token en milisegundos
+     */
+    public record Entrada(String jti, String username, List<SimpleGrantedAuthority> authorities, long expiraEn) {
+    }
+
+    /**
+     * Entradas de la caché indexadas por el hash del token.
+     */
+    private final Map<String, Entrada> entradas = new ConcurrentHashMap<>();
+    /**
+     * Número máximo de tokens almacenados. Con un valor menor o igual a cero la caché queda desactivada.
+     */
+    private final int maxSize;
+    /**
+     * Contadores de aciertos, fallos y desalojos.
+     */
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructor que recibe el tamaño máximo configurado.
+     * @param maxSize número máximo de tokens en caché
+     */
+    public JwtTokenCache(@Value("${jwt.cache.max-size:10000}") int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Devuelve la entrada asociada al token, verificándolo solo si no está en caché o ya expiró.
+     * Las excepciones del verificador se propagan sin almacenar nada.
+     * @param token token JWT sin el prefijo Bearer
+     * @param verificador función que valida el token y construye la entrada
+     * @return entrada con el usuario y sus autoridades
+     */
+    public Entrada resolver(String token, Function<String, Entrada> verificador) {
+        long ahora = System.currentTimeMillis();
+        String clave = hash(token);
+        Entrada entrada = entradas.get(clave);
+        if (entrada != null) {
+            if (entrada.expiraEn() > ahora) {
+                hits.increment();
+                return entrada;
+            }
+            if (entradas.remove(clave, entrada)) {
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        entrada = verificador.apply(token);
+        if (maxSize > 0 && entrada.expiraEn() > ahora) {
+            hacerEspacio(ahora);
+            entradas.put(clave, entrada);
+        }
+        return entrada;
+    }
+
+    /**
+     * Libera espacio cuando la caché está llena: primero elimina los tokens expirados y,
+     * si no basta, desaloja entradas arbitrarias hasta quedar en el 90% de la capacidad.
+     * @param ahora instante actual en milisegundos
+     */
+    private void hacerEspacio(long ahora) {
+        if (entradas.size() < maxSize) {
+            return;
+        }
+        int objetivo = Math.max(0, maxSize - Math.max(1, maxSize / 10));
+        Iterator<Entrada> it = entradas.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().expiraEn() <= ahora) {
+                it.remove();
+                evictions.increment();
+            }
+        }
+        it = entradas.values().iterator();
+        while (entradas.size() > objetivo && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Calcula la clave de caché de un token.
+     * @param token token JWT
+     * @return hash SHA-256 del token codificado en base64
+     */
+    static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = digest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Vacía la caché, por ejemplo tras una revocación masiva de tokens.
+     */
+    public void limpiar() {
+        entradas.clear();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int getSize() {
+        return entradas.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+}
@@ -0,0 +1,199 @@
+package breaze.intro_spring.auth;
+
+import breaze.intro_spring.model.entidades.TokenRefresco;
+import breaze.intro_spring.repositorios.TokenRefrescoRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Servicio para la emisión y rotación de refresh tokens.
+ * Cada uso de un refresh token lo invalida y emite uno nuevo de la misma familia.
+ * Si se presenta un token ya usado se asume que fue robado y se revoca toda su familia.
+ * Los tokens se consultan en un índice en memoria acotado (hash del token → usuario, expiración)
+ * y se persisten en la tabla token_refresco, que se usa como respaldo tras un reinicio o cuando el índice está lleno.
+ * La base de datos decide si un token ya se usó; el índice solo se modifica tras el commit,
+ * de modo que una rotación que falla y se revierte no deja el token marcado como usado en memoria.
+ */
+@Service
+public class RefreshTokenService {
+
+    /**
+     * Resultado de una rotación: usuario dueño del token y nuevo refresh token en claro.
+     * @param usuarioId identificador del usuario
+     * @param refreshToken nuevo refresh token
+     */
+    public record Rotacion(Long usuarioId, String refreshToken) {
+    }
+
+    /**
+     * Entrada del índice en memoria.
+     */
+    private record Entrada(Long usuarioId, String familia, Instant expiraEn, boolean usado) {
+        static Entrada de(TokenRefresco token) {
+            return new Entrada(token.getUsuarioId(), token.getFamilia(), token.getExpiraEn(), token.isUsado());
+        }
+
+        Entrada marcarUsado() {
+            return new Entrada(usuarioId, familia, expiraEn, true);
+        }
+    }
+
+    /**
+     * Repositorio de refresh tokens persistidos.
+     */
+    private final TokenRefrescoRepository tokenRepository;
+    /**
+     * Índice en memoria indexado por el hash del token.
+     */
+    private final Map<String, Entrada> indice = new ConcurrentHashMap<>();
+    /**
+     * Número máximo de tokens en el índice; los que no caben se consultan en la base de datos.
+     */
+    private final int maxSize;
+    /**
+     * Generador de tokens aleatorios.
+     */
+    private final SecureRandom random = new SecureRandom();
+    /**
+     * Validez de cada refresh token.
+     */
+    private final Duration validez;
+
+    /**
+     * Constructor que inyecta el repositorio y la validez configurada.
+     * @param tokenRepository repositorio de refresh tokens
+     * @param expDays días de validez de cada refresh token
+     * @param maxSize número máximo de tokens en el índice en memoria
+     */
+    public RefreshTokenService(TokenRefrescoRepository tokenRepository,
+                               @Value("${jwt.refresh-exp-days:7}") long expDays,
+                               @Value("${jwt.refresh-indice.max-size:100000}") int maxSize) {
+        this.tokenRepository = tokenRepository;
+        this.validez = Duration.ofDays(expDays);
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Emite un refresh token que inicia una nueva familia, por ejemplo tras un login.
+     * @param usuarioId identificador del usuario
+     * @return refresh token en claro
+     */
+    @Transactional
+    public String emitir(Long usuarioId) {
+        return emitir(usuarioId, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Valida y consume un refresh token, emitiendo uno nuevo de la misma familia.
+     * @param refreshToken refresh token presentado por el cliente
+     * @return usuario dueño del token y nuevo refresh token
+     * @throws BadCredentialsException si el token no existe, expiró o ya fue usado
+     */
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public Rotacion rotar(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            throw new BadCredentialsException("Refresh token requerido");
+        }
+        String hash = JwtTokenCache.hash(refreshToken);
+        Entrada entrada = indice.get(hash);
+        if (entrada == null) {
+            // Respaldo en base de datos, por ejemplo tras un reinicio de la aplicación
+            entrada = tokenRepository.findByTokenHash(hash).map(Entrada::de).orElse(null);
+        }
+        if (entrada == null || entrada.expiraEn().isBefore(Instant.now())) {
+            throw new BadCredentialsException("Refresh token inválido");
+        }
+        // El token ya fue usado o hubo un uso concurrente: la actualización condicional de la base de datos
+        // serializa los usos simultáneos y solo uno de ellos la completa. En caso contrario se revoca toda la familia.
+        if (entrada.usado() || tokenRepository.marcarUsado(hash) == 0) {
+            revocarFamilia(entrada.familia());
+            throw new BadCredentialsException("Refresh token reutilizado");
+        }
+        Entrada usada = entrada.marcarUsado();
+        trasCommit(() -> indexar(hash, usada));
+        return new Rotacion(entrada.usuarioId(), emitir(entrada.usuarioId(), entrada.familia()));
+    }
+
+    /**
+     * Crea, persiste e indexa un refresh token de la familia indicada.
+     * @param usuarioId identificador del usuario
+     * @param familia familia de rotación
+     * @return refresh token en claro
+     */
+    private String emitir(Long usuarioId, String familia) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        TokenRefresco token = new TokenRefresco();
+        token.setTokenHash(JwtTokenCache.hash(refreshToken));
+        token.setUsuarioId(usuarioId);
+        token.setFamilia(familia);
+        token.setExpiraEn(Instant.now().plus(validez));
+        tokenRepository.save(token);
+        Entrada entrada = Entrada.de(token);
+        trasCommit(() -> indexar(token.getTokenHash(), entrada));
+        return refreshToken;
+    }
+
+    /**
+     * Marca como usados todos los tokens de una familia, en memoria y en base de datos.
+     * @param familia familia a revocar
+     */
+    private void revocarFamilia(String familia) {
+        tokenRepository.revocarFamilia(familia);
+        trasCommit(() -> indice.replaceAll((hash, entrada) -> entrada.familia().equals(familia) ? entrada.marcarUsado() : entrada));
+    }
+
+    /**
+     * Guarda o reemplaza una entrada del índice. Si el índice está lleno solo se reemplazan entradas existentes.
+     */
+    private void indexar(String hash, Entrada entrada) {
+        if (indice.size() < maxSize) {
+            indice.put(hash, entrada);
+        } else {
+            indice.replace(hash, entrada);
+        }
+    }
+
+    /**
+     * Ejecuta la acción tras el commit de la transacción actual, o de inmediato si no hay transacción.
+     * @param accion cambio del índice en memoria
+     */
+    private static void trasCommit(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+
+    /**
+     * Elimina periódicamente los tokens expirados del índice y de la base de datos.
+     */
+    @Scheduled(fixedDelayString = "${jwt.refresh-sweep-ms:600000}")
+    @Transactional
+    public void eliminarExpirados() {
+        Instant ahora = Instant.now();
+        indice.values().removeIf(entrada -> entrada.expiraEn().isBefore(ahora));
+        tokenRepository.eliminarExpirados(ahora);
+    }
+}
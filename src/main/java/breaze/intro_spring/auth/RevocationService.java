@@ -0,0 +1,96 @@
+package breaze.intro_spring.auth;
+
+import breaze.intro_spring.model.entidades.TokenRevocado;
+import breaze.intro_spring.repositorios.TokenRevocadoRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Servicio de revocación de access tokens antes de su expiración.
+ * Los tokens se identifican por su claim jti. La comprobación que hace JwtAuthFilter en cada petición
+ * es una lectura sin bloqueos sobre un mapa en memoria (jti → expiración), que se reconstruye desde
+ * la tabla token_revocado al arrancar y periódicamente para recoger revocaciones de otras instancias.
+ * Las entradas se descartan cuando el token habría expirado de todos modos.
+ */
+@Service
+public class RevocationService {
+
+    /**
+     * Repositorio de tokens revocados persistidos.
+     */
+    private final TokenRevocadoRepository revocadoRepository;
+    /**
+     * Tokens revocados no expirados: jti → expiración en milisegundos.
+     */
+    private final Map<String, Long> revocados = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor que inyecta el repositorio de tokens revocados.
+     * @param revocadoRepository repositorio de tokens revocados
+     */
+    public RevocationService(TokenRevocadoRepository revocadoRepository) {
+        this.revocadoRepository = revocadoRepository;
+    }
+
+    /**
+     * Indica si el token con el jti dado fue revocado.
+     * @param jti identificador del token; null si el token no lo tiene
+     * @return true si está revocado
+     */
+    public boolean estaRevocado(String jti) {
+        return jti != null && revocados.containsKey(jti);
+    }
+
+    /**
+     * Revoca un token hasta su expiración.
+     * @param jti identificador del token
+     * @param expiraEn expiración del token
+     */
+    @Transactional
+    public void revocar(String jti, Instant expiraEn) {
+        TokenRevocado revocado = new TokenRevocado();
+        revocado.setJti(jti);
+        revocado.setExpiraEn(expiraEn);
+        revocadoRepository.save(revocado);
+        registrar(jti, expiraEn.toEpochMilli());
+    }
+
+    /**
+     * Registra una revocación solo en memoria.
+     * @param jti identificador del token
+     * @param expiraEn expiración del token en milisegundos
+     */
+    void registrar(String jti, long expiraEn) {
+        revocados.put(jti, expiraEn);
+    }
+
+    /**
+     * Carga las revocaciones vigentes desde la base de datos al arrancar y luego de forma periódica.
+     * Como una revocación nunca se deshace, las entradas leídas se añaden a las existentes.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${jwt.revocation-reload-ms:30000}", fixedDelayString = "${jwt.revocation-reload-ms:30000}")
+    public void recargar() {
+        long ahora = System.currentTimeMillis();
+        for (TokenRevocado revocado : revocadoRepository.findByExpiraEnAfter(Instant.ofEpochMilli(ahora))) {
+            registrar(revocado.getJti(), revocado.getExpiraEn().toEpochMilli());
+        }
+        revocados.values().removeIf(expiraEn -> expiraEn <= ahora);
+    }
+
+    /**
+     * Elimina de la base de datos las revocaciones de tokens ya expirados.
+     */
+    @Scheduled(fixedDelayString = "${jwt.refresh-sweep-ms:600000}")
+    @Transactional
+    public void eliminarExpirados() {
+        revocadoRepository.eliminarExpirados(Instant.now());
+    }
+}
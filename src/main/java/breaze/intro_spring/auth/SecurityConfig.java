@@ -1,7 +1,9 @@
 package breaze.intro_spring.auth;
 
 // Importaciones necesarias para la configuración de seguridad
+import jakarta.servlet.DispatcherType; // Tipo de despacho del servlet (REQUEST, ERROR, ...)
 import lombok.RequiredArgsConstructor; // Genera automáticamente el constructor con los campos marcados como 'final'
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest; // Selecciona endpoints de Actuator por su id
 import org.springframework.context.annotation.Bean; // Permite definir métodos que devuelven objetos gestionados por Spring
 import org.springframework.context.annotation.Configuration; // Indica que esta clase contiene configuración de Spring
 import org.springframework.security.authentication.AuthenticationManager; // Gestiona el proceso de autenticación
@@ -11,6 +13,7 @@ import org.springframework.security.authentication.dao.DaoAuthenticationProvider
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity; // Permite usar anotaciones de seguridad en métodos
 import org.springframework.security.config.annotation.web.builders.HttpSecurity; // Permite configurar la seguridad de las peticiones HTTP
 import org.springframework.security.config.http.SessionCreationPolicy; // Define cómo se gestionan las sesiones
+import org.springframework.security.core.userdetails.UserDetailsPasswordService; // Servicio para actualizar hashes de contraseñas
 import org.springframework.security.core.userdetails.UserDetailsService; // Servicio para obtener información de usuarios
 import org.springframework.security.crypto.password.PasswordEncoder; // Codifica y verifica contraseñas
 import org.springframework.security.web.SecurityFilterChain; // Cadena de filtros que procesan las peticiones
@@ -35,13 +38,16 @@ public class SecurityConfig {
     private final UserDetailsService uds;
     // Codificador de contraseñas, por ejemplo BCrypt. Se usa para guardar y verificar contraseñas de forma segura.
     private final PasswordEncoder encoder;
+    // Servicio que guarda el hash re-codificado cuando cambia el coste de BCrypt.
+    private final UserDetailsPasswordService passwordService;
 
     /**
      * Configura la cadena de filtros de seguridad y las reglas de acceso.
      * - Desactiva CSRF porque no se usa en APIs REST.
      * - Configura CORS para permitir peticiones desde el frontend.
      * - Define que no se usan sesiones (stateless).
-     * - Permite el acceso público a login y registro.
+     * - Permite el acceso público a login, registro y renovación de tokens.
+     * - Health y Prometheus son públicos (puerto de gestión interno); el resto de Actuator requiere ADMIN.
      * - El resto de endpoints requieren autenticación.
      * - Los permisos por rol se asignan en los controladores con @PreAuthorize.
      */
@@ -52,8 +58,14 @@ public class SecurityConfig {
                 .cors(cors -> cors.configurationSource(corsConfigurationSource())) // Aplica la configuración CORS definida abajo
                 .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS)) // No se usan sesiones, cada petición se valida por sí sola
                 .authorizeHttpRequests(auth -> auth
-                        // Permite el acceso sin autenticación a los endpoints de login y registro
-                        .requestMatchers("/auth/login", "/auth/register").permitAll()
+                        // Permite el acceso sin autenticación a los endpoints de login, registro y renovación
+                        .requestMatchers("/auth/login", "/auth/register", "/auth/refresh").permitAll()
+                        // Health y Prometheus solo se publican en el puerto de gestión interno
+                        .requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
+                        .requestMatchers(EndpointRequest.toAnyEndpoint()).hasRole("ADMIN")
+                        // El despacho interno a /error conserva el código de error original en lugar de responder 403,
+                        // y el despacho asíncrono que cierra un flujo SSE ya se autorizó en la petición original
+                        .dispatcherTypeMatchers(DispatcherType.ERROR, DispatcherType.ASYNC).permitAll()
                         // El resto de endpoints requieren autenticación
                         .anyRequest().authenticated()
                 )
@@ -73,6 +85,7 @@ public class SecurityConfig {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider(); // Proveedor que usa la base de datos para autenticar
         provider.setUserDetailsService(uds); // Usa el servicio para obtener los datos del usuario
         provider.setPasswordEncoder(encoder); // Usa el codificador para verificar la contraseña
+        provider.setUserDetailsPasswordService(passwordService); // Re-codifica hashes con un coste distinto al configurado
         return provider; // Retorna el proveedor configurado
     }
 
@@ -0,0 +1,28 @@
+package breaze.intro_spring.busqueda;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+
+/**
+ * Analizador de texto para el catálogo en español.
+ * Separa palabras, las pasa a minúsculas y elimina tildes y diéresis (por ejemplo "García" → "garcia"),
+ * de modo que las búsquedas no distinguen mayúsculas ni acentos.
+ */
+public class AnalizadorTexto extends Analyzer {
+
+    @Override
+    protected TokenStreamComponents createComponents(String campo) {
+        Tokenizer tokenizer = new StandardTokenizer();
+        TokenStream filtros = new ASCIIFoldingFilter(new LowerCaseFilter(tokenizer));
+        return new TokenStreamComponents(tokenizer, filtros);
+    }
+
+    @Override
+    protected TokenStream normalize(String campo, TokenStream entrada) {
+        return new ASCIIFoldingFilter(new LowerCaseFilter(entrada));
+    }
+}
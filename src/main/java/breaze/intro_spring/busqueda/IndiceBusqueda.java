@@ -0,0 +1,122 @@
+package breaze.intro_spring.busqueda;
+
+import breaze.intro_spring.eventos.CambioCatalogoEvent;
+import breaze.intro_spring.model.dto.AutorDTO;
+import breaze.intro_spring.model.dto.LibroDTO;
+import breaze.intro_spring.repositorios.AutorRepository;
+import breaze.intro_spring.repositorios.LibroRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.util.stream.Stream;
+
+/**
+ * Índices de texto completo de autores y libros.
+ * Se construyen al arrancar a partir de la base de datos y se mantienen con los eventos
+ * CambioCatalogoEvent que publican AutorService, LibroService y la importación masiva, una vez confirmada la transacción.
+ * Sustituye las búsquedas con LIKE '%texto%', que obligaban a recorrer la tabla completa.
+ */
+@Component
+public class IndiceBusqueda {
+    private static final Logger log = LoggerFactory.getLogger(IndiceBusqueda.class);
+
+    private final AutorRepository autorRepository;
+    private final LibroRepository libroRepository;
+    /**
+     * Índice de autores por nombre y nacionalidad.
+     */
+    private final IndiceTexto autores = new IndiceTexto(new AnalizadorTexto(), "nombre", "nacionalidad");
+    /**
+     * Índice de libros por título.
+     */
+    private final IndiceTexto libros = new IndiceTexto(new AnalizadorTexto(), "titulo");
+
+    public IndiceBusqueda(AutorRepository autorRepository, LibroRepository libroRepository) {
+        this.autorRepository = autorRepository;
+        this.libroRepository = libroRepository;
+    }
+
+    /**
+     * Indexa todo el catálogo al arrancar.
+     * Usa updateDocument, por lo que los cambios recibidos durante la carga no se duplican.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void construir() {
+        autorRepository.buscarTodos().forEach(this::indexarAutor);
+        try (Stream<LibroDTO> todos = libroRepository.recorrerTodos()) {
+            todos.forEach(this::indexarLibro);
+        }
+        log.info("Índice de búsqueda construido: {} autores, {} libros", autores.tamanio(), libros.tamanio());
+    }
+
+    /**
+     * Aplica al índice un cambio del catálogo tras el commit, o de inmediato si se publicó fuera de una transacción.
+     * @param evento cambio publicado por los servicios
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarCatalogo(CambioCatalogoEvent evento) {
+        if (evento.id() == null) {
+            return;
+        }
+        IndiceTexto indice = switch (evento.entidad()) {
+            case AUTOR -> autores;
+            case LIBRO -> libros;
+            // Las categorías de un libro no forman parte del texto indexado
+            case LIBRO_CATEGORIA -> null;
+        };
+        if (indice == null) {
+            return;
+        }
+        if (evento.operacion() == CambioCatalogoEvent.Operacion.ELIMINAR) {
+            indice.eliminar(evento.id());
+        } else if (evento.datos() instanceof AutorDTO autor) {
+            indexarAutor(autor);
+        } else if (evento.datos() instanceof LibroDTO libro) {
+            indexarLibro(libro);
+        }
+    }
+
+    /**
+     * Busca autores por nombre o nacionalidad.
+     * @param texto texto a buscar
+     * @param pagina número de página, empezando en 0
+     * @param tamanio resultados por página
+     * @return IDs ordenados por relevancia y total de coincidencias
+     */
+    public IndiceTexto.Resultado buscarAutores(String texto, int pagina, int tamanio) {
+        return autores.buscar(texto, pagina, tamanio);
+    }
+
+    /**
+     * Busca libros por título.
+     * @param texto texto a buscar
+     * @param pagina número de página, empezando en 0
+     * @param tamanio resultados por página
+     * @return IDs ordenados por relevancia y total de coincidencias
+     */
+    public IndiceTexto.Resultado buscarLibros(String texto, int pagina, int tamanio) {
+        return libros.buscar(texto, pagina, tamanio);
+    }
+
+    private void indexarAutor(AutorDTO autor) {
+        autores.indexar(autor.getId(), autor.getNombre(), autor.getNacionalidad());
+    }
+
+    private void indexarLibro(LibroDTO libro) {
+        libros.indexar(libro.getId(), libro.getTitulo());
+    }
+
+    @PreDestroy
+    public void cerrar() throws IOException {
+        autores.close();
+        libros.close();
+    }
+}
@@ -0,0 +1,241 @@
+package breaze.intro_spring.busqueda;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Índice invertido en memoria sobre Lucene para un tipo de entidad.
+ * Cada documento guarda el ID de la entidad y sus campos de texto analizados (no almacenados);
+ * las búsquedas devuelven los IDs ordenados por relevancia y el llamador recupera los datos de la base de datos.
+ * Las escrituras son visibles en la siguiente búsqueda gracias a la lectura near-real-time del IndexWriter.
+ */
+public class IndiceTexto implements Closeable {
+    private static final String CAMPO_ID = "id";
+    private static final String CAMPO_ORDEN = "orden";
+    /**
+     * Máximo de palabras consideradas por búsqueda, para acotar el coste de las consultas aproximadas.
+     */
+    private static final int MAX_PALABRAS = 8;
+    /**
+     * Posición máxima alcanzable con la paginación; evita reservar colas de resultados enormes.
+     */
+    private static final int MAX_RESULTADOS = 1000;
+    /**
+     * Orden de los resultados: relevancia descendente y, a igual relevancia, ID ascendente.
+     */
+    private static final Sort ORDEN = new Sort(SortField.FIELD_SCORE, new SortField(CAMPO_ORDEN, SortField.Type.LONG));
+
+    /**
+     * Resultado de una búsqueda.
+     * @param ids IDs de la página pedida, en orden de relevancia
+     * @param total número total de coincidencias
+     */
+    public record Resultado(List<Long> ids, long total) {
+        /**
+         * Ordena según la relevancia los datos recuperados para los IDs de este resultado,
+         * descartando los IDs que ya no existan.
+         * @param datos datos recuperados en cualquier orden
+         * @param id función que obtiene el ID de cada dato
+         * @return datos en el orden de {@link #ids()}
+         */
+        public <T> List<T> ordenar(List<T> datos, Function<T, Long> id) {
+            Map<Long, T> porId = new HashMap<>();
+            for (T dato : datos) {
+                porId.put(id.apply(dato), dato);
+            }
+            List<T> ordenados = new ArrayList<>(ids.size());
+            for (Long clave : ids) {
+                T dato = porId.get(clave);
+                if (dato != null) {
+                    ordenados.add(dato);
+                }
+            }
+            return ordenados;
+        }
+    }
+
+    private final Analyzer analizador;
+    private final String[] campos;
+    private final Directory directorio = new ByteBuffersDirectory();
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    /**
+     * Crea un índice vacío.
+     * @param analizador analizador usado al indexar y al buscar
+     * @param campos nombres de los campos de texto, en el mismo orden que los valores de {@link #indexar}
+     */
+    public IndiceTexto(Analyzer analizador, String... campos) {
+        this.analizador = analizador;
+        this.campos = campos;
+        try {
+            this.writer = new IndexWriter(directorio, new IndexWriterConfig(analizador));
+            this.searcherManager = new SearcherManager(writer, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Añade o reemplaza el documento de una entidad.
+     * @param id identificador de la entidad
+     * @param valores valores de los campos de texto; los null se omiten
+     */
+    public void indexar(long id, String... valores) {
+        Document documento = new Document();
+        documento.add(new StringField(CAMPO_ID, Long.toString(id), Field.Store.YES));
+        documento.add(new NumericDocValuesField(CAMPO_ORDEN, id));
+        for (int i = 0; i < campos.length && i < valores.length; i++) {
+            if (valores[i] != null) {
+                documento.add(new TextField(campos[i], valores[i], Field.Store.NO));
+            }
+        }
+        try {
+            writer.updateDocument(new Term(CAMPO_ID, Long.toString(id)), documento);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Elimina el documento de una entidad.
+     * @param id identificador de la entidad
+     */
+    public void eliminar(long id) {
+        try {
+            writer.deleteDocuments(new Term(CAMPO_ID, Long.toString(id)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Busca las entidades que contienen todas las palabras del texto, cada una como término exacto,
+     * como prefijo o con una distancia de edición acotada a su longitud.
+     * @param texto texto introducido por el usuario
+     * @param pagina número de página, empezando en 0
+     * @param tamanio resultados por página
+     * @return IDs de la página y total de coincidencias
+     */
+    public Resultado buscar(String texto, int pagina, int tamanio) {
+        Query consulta = construirConsulta(texto);
+        if (consulta == null) {
+            return new Resultado(List.of(), 0);
+        }
+        long desde = (long) pagina * tamanio;
+        try {
+            searcherManager.maybeRefresh();
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                if (desde >= MAX_RESULTADOS) {
+                    return new Resultado(List.of(), searcher.count(consulta));
+                }
+                TopDocs top = searcher.search(consulta, (int) Math.min(desde + tamanio, MAX_RESULTADOS), ORDEN);
+                List<Long> ids = new ArrayList<>(tamanio);
+                for (int i = (int) desde; i < top.scoreDocs.length; i++) {
+                    ScoreDoc doc = top.scoreDocs[i];
+                    ids.add(Long.parseLong(searcher.storedFields().document(doc.doc, Set.of(CAMPO_ID)).get(CAMPO_ID)));
+                }
+                return new Resultado(ids, searcher.count(consulta));
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Construye la consulta: cada palabra debe coincidir en alguno de los campos.
+     * Las coincidencias exactas puntúan más que los prefijos, y estos más que las aproximadas.
+     * @return consulta o null si el texto no contiene palabras
+     */
+    Query construirConsulta(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return null;
+        }
+        BooleanQuery.Builder consulta = new BooleanQuery.Builder();
+        boolean vacia = true;
+        for (String palabra : analizar(texto)) {
+            BooleanQuery.Builder variantes = new BooleanQuery.Builder();
+            for (String campo : campos) {
+                Term termino = new Term(campo, palabra);
+                variantes.add(new BoostQuery(new TermQuery(termino), 4f), BooleanClause.Occur.SHOULD);
+                if (palabra.length() >= 2) {
+                    variantes.add(new BoostQuery(new PrefixQuery(termino), 2f), BooleanClause.Occur.SHOULD);
+                }
+                int ediciones = palabra.length() <= 3 ? 0 : palabra.length() <= 6 ? 1 : 2;
+                if (ediciones > 0) {
+                    variantes.add(new FuzzyQuery(termino, ediciones, 1), BooleanClause.Occur.SHOULD);
+                }
+            }
+            consulta.add(variantes.build(), BooleanClause.Occur.MUST);
+            vacia = false;
+        }
+        return vacia ? null : consulta.build();
+    }
+
+    private List<String> analizar(String texto) {
+        List<String> palabras = new ArrayList<>();
+        try (TokenStream tokens = analizador.tokenStream(campos[0], texto)) {
+            CharTermAttribute termino = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            while (palabras.size() < MAX_PALABRAS && tokens.incrementToken()) {
+                palabras.add(termino.toString());
+            }
+            tokens.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return palabras;
+    }
+
+    /**
+     * Número de documentos indexados, incluidos los cambios aún no visibles para las búsquedas.
+     * @return número de documentos
+     */
+    public int tamanio() {
+        return writer.getDocStats().numDocs;
+    }
+
+    @Override
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directorio.close();
+    }
+}
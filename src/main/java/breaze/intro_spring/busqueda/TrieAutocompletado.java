@@ -0,0 +1,349 @@
+package breaze.intro_spring.busqueda;
+
+import breaze.intro_spring.eventos.CambioCatalogoEvent;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Trie inmutable para autocompletar títulos de libros y nombres de autores.
+ * Cada texto se indexa normalizado (minúsculas, sin acentos) desde el inicio de cada una de sus palabras,
+ * de modo que "már" sugiere tanto "Mario Vargas Llosa" como "Gabriel García Márquez".
+ * Cada nodo guarda precalculadas sus mejores sugerencias por peso, así que una consulta solo recorre
+ * los caracteres del prefijo y copia esa lista. Los nodos se almacenan en arreglos paralelos
+ * para ocupar poca memoria; para actualizarlo se construye un trie nuevo y se reemplaza la referencia.
+ */
+public final class TrieAutocompletado {
+
+    /**
+     * Texto sugerible.
+     * @param tipo entidad a la que pertenece
+     * @param id identificador de la entidad
+     * @param texto texto mostrado al usuario
+     * @param peso popularidad; las sugerencias de mayor peso aparecen primero
+     */
+    public record Sugerencia(CambioCatalogoEvent.Entidad tipo, Long id, String texto, long peso) {
+    }
+
+    /**
+     * Número máximo de sugerencias guardadas por nodo, y por tanto devueltas por consulta.
+     */
+    public static final int MAX_SUGERENCIAS = 16;
+    /**
+     * Longitud máxima indexada de cada clave; acota el número de nodos con títulos largos.
+     */
+    private static final int MAX_LONGITUD = 24;
+    /**
+     * Longitud mínima de una palabra para indexarla como inicio de clave, salvo la primera.
+     */
+    private static final int MIN_PALABRA = 2;
+    /**
+     * Orden de las sugerencias: mayor peso, texto más corto y orden alfabético.
+     */
+    private static final Comparator<Sugerencia> ORDEN = Comparator.comparingLong(Sugerencia::peso).reversed()
+            .thenComparingInt(s -> s.texto().length())
+            .thenComparing(Sugerencia::texto);
+
+    private static final TrieAutocompletado VACIO = construir(List.of());
+
+    private final Sugerencia[] sugerencias;
+    /**
+     * Carácter de la arista que llega a cada nodo.
+     */
+    private final char[] letra;
+    /**
+     * Primer hijo de cada nodo; los hijos son contiguos y están ordenados por carácter.
+     */
+    private final int[] primerHijo;
+    private final int[] numHijos;
+    /**
+     * Rango [topInicio, topInicio + topCantidad) de cada nodo dentro de top.
+     */
+    private final int[] topInicio;
+    private final byte[] topCantidad;
+    /**
+     * Índices de sugerencias ordenados por relevancia, concatenados nodo a nodo.
+     */
+    private final int[] top;
+
+    private TrieAutocompletado(Sugerencia[] sugerencias, char[] letra, int[] primerHijo, int[] numHijos,
+                               int[] topInicio, byte[] topCantidad, int[] top) {
+        this.sugerencias = sugerencias;
+        this.letra = letra;
+        this.primerHijo = primerHijo;
+        this.numHijos = numHijos;
+        this.topInicio = topInicio;
+        this.topCantidad = topCantidad;
+        this.top = top;
+    }
+
+    public static TrieAutocompletado vacio() {
+        return VACIO;
+    }
+
+    /**
+     * Devuelve las mejores sugerencias cuyo texto contiene una palabra que empieza por el prefijo.
+     * @param prefijo texto escrito por el usuario
+     * @param limite número máximo de sugerencias
+     * @return sugerencias ordenadas por peso
+     */
+    public List<Sugerencia> buscar(String prefijo, int limite) {
+        String clave = normalizar(prefijo);
+        if (clave.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+        int nodo = 0;
+        for (int i = 0; i < clave.length() && i < MAX_LONGITUD; i++) {
+            nodo = hijo(nodo, clave.charAt(i));
+            if (nodo < 0) {
+                return List.of();
+            }
+        }
+        int cantidad = Math.min(limite, topCantidad[nodo]);
+        List<Sugerencia> resultado = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            resultado.add(sugerencias[top[topInicio[nodo] + i]]);
+        }
+        return resultado;
+    }
+
+    /**
+     * Número de nodos del trie.
+     * @return nodos, incluida la raíz
+     */
+    public int nodos() {
+        return letra.length;
+    }
+
+    private int hijo(int nodo, char c) {
+        int lo = primerHijo[nodo];
+        int hi = lo + numHijos[nodo] - 1;
+        while (lo <= hi) {
+            int medio = (lo + hi) >>> 1;
+            char actual = letra[medio];
+            if (actual < c) {
+                lo = medio + 1;
+            } else if (actual > c) {
+                hi = medio - 1;
+            } else {
+                return medio;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Normaliza un texto para indexarlo o buscarlo: minúsculas, sin acentos y con los separadores
+     * reducidos a un único espacio.
+     * @param texto texto original
+     * @return texto normalizado
+     */
+    static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinAcentos = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(sinAcentos.length());
+        boolean espacio = false;
+        for (int i = 0; i < sinAcentos.length(); i++) {
+            char c = sinAcentos.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (espacio && sb.length() > 0) {
+                    sb.append(' ');
+                }
+                sb.append(Character.toLowerCase(c));
+                espacio = false;
+            } else {
+                espacio = true;
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Construye un trie con las sugerencias dadas.
+     * @param entrada sugerencias a indexar
+     * @return trie inmutable
+     */
+    public static TrieAutocompletado construir(Collection<Sugerencia> entrada) {
+        Sugerencia[] sugerencias = entrada.toArray(new Sugerencia[0]);
+        // Rango de cada sugerencia según ORDEN: comparar rangos equivale a comparar sugerencias
+        Arrays.sort(sugerencias, ORDEN);
+
+        List<Clave> claves = new ArrayList<>();
+        for (int i = 0; i < sugerencias.length; i++) {
+            String normalizado = normalizar(sugerencias[i].texto());
+            for (int inicio = 0; inicio < normalizado.length(); inicio = siguientePalabra(normalizado, inicio)) {
+                if (inicio == 0 || palabraLarga(normalizado, inicio)) {
+                    claves.add(new Clave(normalizado, inicio, Math.min(normalizado.length(), inicio + MAX_LONGITUD), i));
+                }
+            }
+        }
+        claves.sort(Clave::comparar);
+
+        Constructor constructor = new Constructor(sugerencias.length);
+        constructor.nuevoNodo('\0');
+        constructor.construir(claves, 0, 0, claves.size(), 0);
+        return constructor.terminar(sugerencias);
+    }
+
+    private static int siguientePalabra(String texto, int desde) {
+        int espacio = texto.indexOf(' ', desde);
+        return espacio < 0 ? texto.length() : espacio + 1;
+    }
+
+    private static boolean palabraLarga(String texto, int inicio) {
+        int fin = texto.indexOf(' ', inicio);
+        return (fin < 0 ? texto.length() : fin) - inicio >= MIN_PALABRA;
+    }
+
+    /**
+     * Clave indexada: el tramo [inicio, fin) del texto normalizado, sin copiarlo, y la sugerencia
+     * a la que pertenece, identificada por su rango.
+     */
+    private record Clave(String texto, int inicio, int fin, int sugerencia) {
+        int longitud() {
+            return fin - inicio;
+        }
+
+        char charAt(int i) {
+            return texto.charAt(inicio + i);
+        }
+
+        int comparar(Clave otra) {
+            int comun = Math.min(longitud(), otra.longitud());
+            for (int i = 0; i < comun; i++) {
+                int diferencia = charAt(i) - otra.charAt(i);
+                if (diferencia != 0) {
+                    return diferencia;
+                }
+            }
+            return longitud() - otra.longitud();
+        }
+    }
+
+    /**
+     * Estado mutable usado solo durante la construcción.
+     */
+    private static final class Constructor {
+        private char[] letra = new char[1024];
+        private int[] primerHijo = new int[1024];
+        private int[] numHijos = new int[1024];
+        private int[] topInicio = new int[1024];
+        private byte[] topCantidad = new byte[1024];
+        private int[] top = new int[1024];
+        /**
+         * Primera clave de cada nodo, usada para delimitar los rangos de los hijos al recorrerlos.
+         */
+        private int[] desdeNodo = new int[1024];
+        /**
+         * Búfer compartido para fusionar las sugerencias de los hijos; los hijos ya terminaron al usarlo.
+         */
+        private int[] candidatos = new int[MAX_SUGERENCIAS * 4];
+        private int nodos;
+        private int topUsados;
+        /**
+         * Marca de la última vez que se vio cada sugerencia, para descartar duplicados al fusionar.
+         */
+        private final int[] vista;
+        private int marca;
+
+        Constructor(int sugerencias) {
+            this.vista = new int[sugerencias];
+        }
+
+        int nuevoNodo(char c) {
+            if (nodos == letra.length) {
+                int capacidad = nodos * 2;
+                letra = Arrays.copyOf(letra, capacidad);
+                primerHijo = Arrays.copyOf(primerHijo, capacidad);
+                numHijos = Arrays.copyOf(numHijos, capacidad);
+                topInicio = Arrays.copyOf(topInicio, capacidad);
+                topCantidad = Arrays.copyOf(topCantidad, capacidad);
+                desdeNodo = Arrays.copyOf(desdeNodo, capacidad);
+            }
+            letra[nodos] = c;
+            return nodos++;
+        }
+
+        /**
+         * Construye los hijos del nodo a partir de las claves [desde, hasta), que comparten los primeros
+         * 'profundidad' caracteres, y calcula su lista de mejores sugerencias.
+         */
+        void construir(List<Clave> claves, int nodo, int desde, int hasta, int profundidad) {
+            // Las claves que terminan en este nodo van primero por el orden lexicográfico
+            int inicioHijos = desde;
+            while (inicioHijos < hasta && claves.get(inicioHijos).longitud() == profundidad) {
+                inicioHijos++;
+            }
+            // Se reservan primero todos los hijos para que queden contiguos
+            int primero = nodos;
+            for (int i = inicioHijos; i < hasta; ) {
+                char c = claves.get(i).charAt(profundidad);
+                int hijo = nuevoNodo(c);
+                desdeNodo[hijo] = i;
+                int j = i + 1;
+                while (j < hasta && claves.get(j).charAt(profundidad) == c) {
+                    j++;
+                }
+                i = j;
+            }
+            int ultimo = nodos;
+            primerHijo[nodo] = primero;
+            numHijos[nodo] = ultimo - primero;
+            for (int hijo = primero; hijo < ultimo; hijo++) {
+                construir(claves, hijo, desdeNodo[hijo], hijo + 1 < ultimo ? desdeNodo[hijo + 1] : hasta, profundidad + 1);
+            }
+
+            // Mejores sugerencias: las que terminan aquí más las de los hijos, sin duplicados
+            int n = 0;
+            marca++;
+            for (int i = desde; i < inicioHijos; i++) {
+                n = agregar(n, claves.get(i).sugerencia());
+            }
+            for (int hijo = primero; hijo < ultimo; hijo++) {
+                for (int i = 0; i < topCantidad[hijo]; i++) {
+                    n = agregar(n, top[topInicio[hijo] + i]);
+                }
+            }
+            Arrays.sort(candidatos, 0, n);
+            int cantidad = Math.min(n, MAX_SUGERENCIAS);
+            asegurarTop(cantidad);
+            System.arraycopy(candidatos, 0, top, topUsados, cantidad);
+            topInicio[nodo] = topUsados;
+            topCantidad[nodo] = (byte) cantidad;
+            topUsados += cantidad;
+        }
+
+        private int agregar(int n, int sugerencia) {
+            if (vista[sugerencia] == marca) {
+                return n;
+            }
+            vista[sugerencia] = marca;
+            if (n == candidatos.length) {
+                candidatos = Arrays.copyOf(candidatos, n * 2);
+            }
+            candidatos[n] = sugerencia;
+            return n + 1;
+        }
+
+        private void asegurarTop(int cantidad) {
+            if (topUsados + cantidad > top.length) {
+                top = Arrays.copyOf(top, Math.max(top.length * 2, topUsados + cantidad));
+            }
+        }
+
+        TrieAutocompletado terminar(Sugerencia[] sugerencias) {
+            return new TrieAutocompletado(sugerencias, Arrays.copyOf(letra, nodos), Arrays.copyOf(primerHijo, nodos),
+                    Arrays.copyOf(numHijos, nodos), Arrays.copyOf(topInicio, nodos), Arrays.copyOf(topCantidad, nodos),
+                    Arrays.copyOf(top, topUsados));
+        }
+    }
+}
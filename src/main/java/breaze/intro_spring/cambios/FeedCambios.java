@@ -0,0 +1,278 @@
+package breaze.intro_spring.cambios;
+
+import breaze.intro_spring.eventos.CambioCatalogoEvent;
+import breaze.intro_spring.model.dto.CambioDTO;
+import breaze.intro_spring.model.dto.CambiosDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Feed de cambios del catálogo para servicios que hoy sondean la API REST.
+ * Cada CambioCatalogoEvent confirmado (autores, libros y categorías de libros) recibe un número de secuencia y se
+ * guarda en un buffer circular en memoria con los últimos cambios.capacidad cambios, desde el que se sirven tanto
+ * la consulta de recuperación (since) como los flujos SSE.
+ * Publicar solo escribe una celda del buffer y despierta a los suscriptores; cada suscriptor tiene su propio hilo
+ * virtual que lee a su ritmo, así que un cliente lento nunca frena las escrituras ni a otros clientes.
+ * Si un cliente se retrasa más que la capacidad del buffer, o pide un since que ya no está en memoria, recibe un
+ * aviso de reinicio: debe recargar el catálogo por la API REST y continuar desde la secuencia indicada.
+ * Las secuencias parten del instante de arranque (milisegundos × 1000), de modo que siguen creciendo tras un
+ * reinicio y un since de la ejecución anterior se detecta como fuera del buffer.
+ */
+@Component
+public class FeedCambios {
+
+    private static final Logger log = LoggerFactory.getLogger(FeedCambios.class);
+
+    /**
+     * Cambios enviados por suscriptor antes de volver a comprobar si sigue abierto.
+     */
+    private static final int LOTE_ENVIO = 256;
+
+    /**
+     * Cambio publicado con su JSON, serializado una sola vez por el primer suscriptor que lo envía.
+     */
+    private static final class Publicado {
+        private final CambioDTO cambio;
+        private volatile String json;
+
+        private Publicado(CambioDTO cambio) {
+            this.cambio = cambio;
+        }
+    }
+
+    /**
+     * Resultado de leer el buffer a partir de una secuencia.
+     * @param cambios cambios consecutivos disponibles
+     * @param perdido true si la secuencia pedida ya se sobrescribió o no pertenece a esta ejecución
+     */
+    private record Lectura(List<Publicado> cambios, boolean perdido) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final int capacidad;
+    private final int mascara;
+    private final AtomicReferenceArray<Publicado> buffer;
+    /**
+     * Secuencia anterior al primer cambio de esta ejecución.
+     */
+    private final long inicio;
+    /**
+     * Última secuencia asignada.
+     */
+    private final AtomicLong secuencia;
+    private final Set<Suscriptor> suscriptores = ConcurrentHashMap.newKeySet();
+    private final ThreadFactory hilos = Thread.ofVirtual().name("cambios-", 1).factory();
+    private final int maxSuscriptores;
+    private final long latidoNanos;
+    private final long timeoutMillis;
+
+    public FeedCambios(ObjectMapper objectMapper, ObjectProvider<MeterRegistry> registry,
+                       @Value("${cambios.capacidad:16384}") int capacidad,
+                       @Value("${cambios.max-suscriptores:1000}") int maxSuscriptores,
+                       @Value("${cambios.latido-ms:15000}") long latidoMs,
+                       @Value("${cambios.timeout-ms:1800000}") long timeoutMs) {
+        if (capacidad < 2 || capacidad > (1 << 30)) {
+            throw new IllegalArgumentException("cambios.capacidad fuera de rango: " + capacidad);
+        }
+        this.objectMapper = objectMapper;
+        this.capacidad = Integer.highestOneBit(capacidad - 1) << 1;
+        this.mascara = this.capacidad - 1;
+        this.buffer = new AtomicReferenceArray<>(this.capacidad);
+        this.inicio = System.currentTimeMillis() * 1000;
+        this.secuencia = new AtomicLong(inicio);
+        this.maxSuscriptores = maxSuscriptores;
+        this.latidoNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1000, latidoMs));
+        this.timeoutMillis = timeoutMs;
+        registry.ifAvailable(r -> Gauge.builder("biblioteca.cambios.suscriptores", suscriptores, Set::size)
+                .description("Clientes conectados al feed de cambios").register(r));
+    }
+
+    /**
+     * Publica un cambio confirmado en el buffer y despierta a los suscriptores, sin esperar a ninguno.
+     * @param evento cambio publicado por los servicios
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarCatalogo(CambioCatalogoEvent evento) {
+        long numero = secuencia.incrementAndGet();
+        buffer.set((int) numero & mascara, new Publicado(new CambioDTO(numero, evento.entidad(), evento.operacion(),
+                evento.id(), evento.datos(), Instant.now())));
+        for (Suscriptor suscriptor : suscriptores) {
+            suscriptor.despertar();
+        }
+    }
+
+    /**
+     * Devuelve los cambios posteriores a {@code since} que siguen en memoria.
+     * @param since última secuencia que el cliente ya procesó; null para obtener solo la secuencia actual
+     * @param limite número máximo de cambios
+     * @return cambios, secuencia para la siguiente consulta y si el cliente debe recargar el catálogo
+     */
+    public CambiosDTO consultar(Long since, int limite) {
+        if (since == null) {
+            return new CambiosDTO(List.of(), secuencia.get(), false);
+        }
+        Lectura lectura = leer(since, limite);
+        if (lectura.perdido()) {
+            return new CambiosDTO(List.of(), secuencia.get(), true);
+        }
+        List<CambioDTO> cambios = new ArrayList<>(lectura.cambios().size());
+        for (Publicado publicado : lectura.cambios()) {
+            cambios.add(publicado.cambio);
+        }
+        long ultima = cambios.isEmpty() ? since : cambios.get(cambios.size() - 1).getSecuencia();
+        return new CambiosDTO(cambios, ultima, false);
+    }
+
+    /**
+     * Abre un flujo SSE con los cambios posteriores a {@code since} y los que se publiquen después.
+     * Cada cambio se envía como un evento "cambio" con id igual a su secuencia, que el cliente puede devolver
+     * en Last-Event-ID al reconectar. Si since ya no está en memoria se envía un evento "reinicio" y se cierra el flujo.
+     * @param since última secuencia procesada por el cliente; null para recibir solo los cambios nuevos
+     * @return emisor asociado a la respuesta
+     */
+    public SseEmitter suscribir(Long since) {
+        if (suscriptores.size() >= maxSuscriptores) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Demasiados clientes conectados al feed de cambios");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Suscriptor suscriptor = new Suscriptor(emitter, since == null ? secuencia.get() : since);
+        emitter.onCompletion(suscriptor::cerrar);
+        emitter.onTimeout(suscriptor::cerrar);
+        emitter.onError(error -> suscriptor.cerrar());
+        suscriptores.add(suscriptor);
+        hilos.newThread(suscriptor::ejecutar).start();
+        return emitter;
+    }
+
+    /**
+     * Lee los cambios consecutivos posteriores a {@code desde}. Se detiene en el primero aún no publicado:
+     * un escritor pudo obtener su secuencia sin haber escrito todavía la celda.
+     */
+    private Lectura leer(long desde, int maximo) {
+        long actual = secuencia.get();
+        if (desde < inicio || desde > actual || actual - desde > capacidad) {
+            return new Lectura(List.of(), true);
+        }
+        List<Publicado> cambios = new ArrayList<>(Math.min(maximo, (int) (actual - desde)));
+        for (long siguiente = desde + 1; cambios.size() < maximo; siguiente++) {
+            Publicado publicado = buffer.get((int) siguiente & mascara);
+            if (publicado == null || publicado.cambio.getSecuencia() < siguiente) {
+                break;
+            }
+            if (publicado.cambio.getSecuencia() > siguiente) {
+                // La celda ya pertenece a una vuelta posterior del buffer
+                return new Lectura(List.of(), true);
+            }
+            cambios.add(publicado);
+        }
+        return new Lectura(cambios, false);
+    }
+
+    private String json(Publicado publicado) {
+        String json = publicado.json;
+        if (json == null) {
+            try {
+                json = objectMapper.writeValueAsString(publicado.cambio);
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+            publicado.json = json;
+        }
+        return json;
+    }
+
+    /**
+     * Cliente SSE conectado, atendido por su propio hilo virtual.
+     */
+    private final class Suscriptor {
+        private final SseEmitter emitter;
+        /**
+         * Última secuencia enviada al cliente.
+         */
+        private long cursor;
+        private volatile boolean cerrado;
+        private volatile Thread hilo;
+
+        private Suscriptor(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+
+        private void despertar() {
+            LockSupport.unpark(hilo);
+        }
+
+        private void cerrar() {
+            cerrado = true;
+            despertar();
+        }
+
+        /**
+         * Envía los cambios pendientes y duerme hasta el siguiente cambio o hasta el latido,
+         * que mantiene viva la conexión y detecta clientes desconectados.
+         */
+        private void ejecutar() {
+            hilo = Thread.currentThread();
+            long ultimoEnvio = System.nanoTime();
+            try {
+                while (!cerrado) {
+                    Lectura lectura = leer(cursor, LOTE_ENVIO);
+                    if (lectura.perdido()) {
+                        emitter.send(SseEmitter.event().name("reinicio").data(secuencia.get()));
+                        emitter.complete();
+                        return;
+                    }
+                    if (!lectura.cambios().isEmpty()) {
+                        for (Publicado publicado : lectura.cambios()) {
+                            emitter.send(SseEmitter.event()
+                                    .id(Long.toString(publicado.cambio.getSecuencia()))
+                                    .name("cambio")
+                                    .data(json(publicado), MediaType.APPLICATION_JSON));
+                            cursor = publicado.cambio.getSecuencia();
+                        }
+                        ultimoEnvio = System.nanoTime();
+                        continue;
+                    }
+                    if (System.nanoTime() - ultimoEnvio >= latidoNanos) {
+                        emitter.send(SseEmitter.event().comment("latido"));
+                        ultimoEnvio = System.nanoTime();
+                    }
+                    LockSupport.parkNanos(latidoNanos);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Cliente desconectado o emisor ya completado por timeout
+                log.debug("Suscriptor del feed de cambios cerrado: {}", e.getMessage());
+            } catch (RuntimeException e) {
+                log.warn("Error en un suscriptor del feed de cambios", e);
+                emitter.completeWithError(e);
+            } finally {
+                suscriptores.remove(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package breaze.intro_spring.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Configuración de la caché de segundo nivel de Hibernate para los datos de referencia.
+ * Usa Caffeine como proveedor JCache en el mismo proceso, con un tamaño máximo por región
+ * y estadísticas activadas para poder consultar la tasa de aciertos.
+ */
+@Configuration
+public class CacheConfig {
+    /**
+     * Regiones de entidades cacheadas.
+     */
+    public static final String REGION_AUTOR = "autor";
+    public static final String REGION_CATEGORIA = "categoria";
+    public static final String REGION_ROL = "rol";
+    /**
+     * Región de consultas sobre autores; se vacía explícitamente en cada escritura de AutorService.
+     */
+    public static final String REGION_CONSULTAS_AUTOR = "consultas-autor";
+    /**
+     * Región de consultas sobre categorías y roles.
+     */
+    public static final String REGION_CONSULTAS_REFERENCIA = "consultas-referencia";
+    /**
+     * Región donde Hibernate guarda la última modificación de cada tabla para invalidar la caché de consultas.
+     */
+    private static final String REGION_TIMESTAMPS = "default-update-timestamps-region";
+
+    public static final List<String> REGIONES_ENTIDAD = List.of(REGION_AUTOR, REGION_CATEGORIA, REGION_ROL);
+    public static final List<String> REGIONES_CONSULTA = List.of(REGION_CONSULTAS_AUTOR, REGION_CONSULTAS_REFERENCIA);
+
+    /**
+     * Crea las regiones de la caché con su límite de tamaño y las entrega a Hibernate.
+     * @param maxSize número máximo de entradas por región
+     * @return customizer que registra el CacheManager en las propiedades de Hibernate
+     */
+    @Bean
+    public HibernatePropertiesCustomizer segundoNivelCacheCustomizer(@Value("${cache.referencia.max-size:10000}") long maxSize) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        for (String region : REGIONES_ENTIDAD) {
+            crearRegion(cacheManager, region, OptionalLong.of(maxSize));
+        }
+        for (String region : REGIONES_CONSULTA) {
+            crearRegion(cacheManager, region, OptionalLong.of(maxSize));
+        }
+        // Los timestamps no deben desalojarse: perder uno permitiría servir resultados de consultas obsoletos
+        crearRegion(cacheManager, REGION_TIMESTAMPS, OptionalLong.empty());
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+    }
+
+    private static void crearRegion(CacheManager cacheManager, String region, OptionalLong maxSize) {
+        if (cacheManager.getCache(region) != null) {
+            return;
+        }
+        CaffeineConfiguration<Object, Object> configuracion = new CaffeineConfiguration<>();
+        configuracion.setMaximumSize(maxSize);
+        configuracion.setStatisticsEnabled(true);
+        cacheManager.createCache(region, configuracion);
+    }
+}
@@ -0,0 +1,30 @@
+package breaze.intro_spring.config;
+
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Inicialización del esquema con schema-mysql.sql (spring.sql.init.platform=mysql).
+ * El script usa sintaxis de MySQL, así que solo se ejecuta contra una base externa; con una base embebida
+ * (H2 en las pruebas y benchmarks) Hibernate ya crea todas las tablas con ddl-auto=create-drop.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(SqlInitializationProperties.class)
+public class EsquemaConfig {
+
+    @Bean
+    public SqlDataSourceScriptDatabaseInitializer dataSourceScriptDatabaseInitializer(DataSource dataSource,
+                                                                                      SqlInitializationProperties propiedades) {
+        return new SqlDataSourceScriptDatabaseInitializer(dataSource, propiedades) {
+            @Override
+            public boolean initializeDatabase() {
+                return !isEmbeddedDatabase() && super.initializeDatabase();
+            }
+        };
+    }
+}
@@ -0,0 +1,35 @@
+package breaze.intro_spring.config;
+
+import breaze.intro_spring.respuestas.Formato;
+import breaze.intro_spring.respuestas.MapeadoresFormato;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Codificaciones binarias Smile y CBOR para la API del catálogo.
+ * Los convertidores se registran como beans para que Spring Boot los use en lugar de los predeterminados de Spring MVC,
+ * que crean sus mappers sin la configuración de Jackson de la aplicación.
+ * Así los @RequestBody (por ejemplo CrearLibroInDTO) aceptan Content-Type application/x-jackson-smile y application/cbor.
+ */
+@Configuration(proxyBeanMethods = false)
+public class FormatosConfig {
+
+    @Bean
+    public MapeadoresFormato mapeadoresFormato(ObjectMapper objectMapper, Jackson2ObjectMapperBuilder builder) {
+        return new MapeadoresFormato(objectMapper, builder);
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(MapeadoresFormato mapeadores) {
+        return new MappingJackson2SmileHttpMessageConverter(mapeadores.mapper(Formato.SMILE));
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(MapeadoresFormato mapeadores) {
+        return new MappingJackson2CborHttpMessageConverter(mapeadores.mapper(Formato.CBOR));
+    }
+}
@@ -0,0 +1,111 @@
+package breaze.intro_spring.config;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limita el número de peticiones que se procesan a la vez.
+ * Con hilos virtuales Tomcat ya no tiene un tope de hilos, y una ráfaga de peticiones acabaría
+ * esperando en masa por el pool de conexiones de MySQL. Este filtro deja pasar como máximo
+ * concurrencia.max-peticiones peticiones; el resto espera un tiempo acotado y, si no obtiene
+ * turno, recibe un 503 con Retry-After en lugar de saturar la base de datos.
+ * Solo se registra si la propiedad concurrencia.max-peticiones está definida.
+ * El feed de cambios (/cambios) queda fuera del límite: sus conexiones SSE duran minutos y no usan la base de datos.
+ */
+@Component
+@ConditionalOnProperty(name = "concurrencia.max-peticiones")
+public class LimiteConcurrenciaFilter extends OncePerRequestFilter {
+
+    /**
+     * Permisos disponibles; uno por petición en curso.
+     */
+    private final Semaphore permisos;
+    /**
+     * Tiempo máximo de espera por un permiso, en milisegundos.
+     */
+    private final long esperaMs;
+
+    public LimiteConcurrenciaFilter(@Value("${concurrencia.max-peticiones}") int maxPeticiones,
+                                    @Value("${concurrencia.espera-ms:500}") long esperaMs) {
+        this.permisos = new Semaphore(maxPeticiones, true);
+        this.esperaMs = esperaMs;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getServletPath().startsWith("/cambios");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean adquirido;
+        try {
+            adquirido = permisos.tryAcquire(esperaMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            adquirido = false;
+        }
+        if (!adquirido) {
+            response.setHeader("Retry-After", "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Servidor ocupado, reintente más tarde");
+            return;
+        }
+        AtomicBoolean liberado = new AtomicBoolean();
+        Runnable liberar = () -> {
+            if (liberado.compareAndSet(false, true)) {
+                permisos.release();
+            }
+        };
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Las respuestas asíncronas (streaming, CompletableFuture) conservan el permiso hasta terminar
+                request.getAsyncContext().addListener(new LiberarAlTerminar(liberar));
+            } else {
+                liberar.run();
+            }
+        }
+    }
+
+    /**
+     * Libera el permiso cuando termina el procesamiento asíncrono de la petición.
+     */
+    private record LiberarAlTerminar(Runnable liberar) implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {
+            liberar.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            liberar.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            liberar.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Un nuevo ciclo asíncrono vuelve a registrar los listeners, que deben conservarse
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
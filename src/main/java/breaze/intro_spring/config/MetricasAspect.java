@@ -0,0 +1,76 @@
+package breaze.intro_spring.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Temporizadores de Micrometer para los servicios y para JwtService.
+ * Mide cada método declarado en las interfaces de servicios (IAutorService, ILibroService, ...)
+ * y las operaciones de JwtService, con etiquetas de clase, método y excepción.
+ * Los endpoints HTTP (http.server.requests) y los repositorios de Spring Data
+ * (spring.data.repository.invocations) los mide ya Spring Boot Actuator.
+ * Se ejecuta por fuera de @Transactional para que el tiempo incluya el commit.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MetricasAspect {
+
+    private record Clave(String nombre, Method metodo, String excepcion) {
+    }
+
+    private final MeterRegistry registry;
+    /**
+     * Temporizadores ya registrados, para no reconstruir sus etiquetas en cada llamada.
+     */
+    private final Map<Clave, Timer> timers = new ConcurrentHashMap<>();
+
+    public MetricasAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(* breaze.intro_spring.services.I*.*(..))")
+    public Object medirServicio(ProceedingJoinPoint joinPoint) throws Throwable {
+        return medir("biblioteca.servicios", joinPoint);
+    }
+
+    @Around("execution(* breaze.intro_spring.auth.JwtService.parse(..))" +
+            " || execution(* breaze.intro_spring.auth.JwtService.generate(..))" +
+            " || execution(* breaze.intro_spring.auth.JwtService.verificar(..))")
+    public Object medirJwt(ProceedingJoinPoint joinPoint) throws Throwable {
+        return medir("biblioteca.jwt", joinPoint);
+    }
+
+    private Object medir(String nombre, ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample muestra = Timer.start(registry);
+        String excepcion = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            excepcion = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            Method metodo = ((MethodSignature) joinPoint.getSignature()).getMethod();
+            muestra.stop(timers.computeIfAbsent(new Clave(nombre, metodo, excepcion), this::registrar));
+        }
+    }
+
+    private Timer registrar(Clave clave) {
+        return Timer.builder(clave.nombre())
+                .tag("clase", clave.metodo().getDeclaringClass().getSimpleName())
+                .tag("metodo", clave.metodo().getName())
+                .tag("exception", clave.excepcion())
+                .register(registry);
+    }
+}
@@ -0,0 +1,120 @@
+package breaze.intro_spring.config;
+
+import breaze.intro_spring.model.dto.EstadisticasPoolDTO;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas del pool de conexiones HikariCP.
+ * Hikari llama al tracker en cada préstamo y devolución de conexión; aquí solo se acumulan contadores
+ * sin bloqueos y el estado del pool (activas, inactivas, hilos en espera) se lee de PoolStats al consultar.
+ * Además cuenta los préstamos que superan el umbral de detección de fugas, que Hikari solo registra en el log.
+ * Si hay un MeterRegistry, cada evento se reenvía también al tracker de Micrometer (métricas hikaricp.*),
+ * ya que Hikari admite un único tracker.
+ */
+public class MetricasPool implements MetricsTrackerFactory {
+
+    private final LongAdder adquisiciones = new LongAdder();
+    private final LongAdder tiempoAdquisicionNanos = new LongAdder();
+    private final LongAccumulator maxAdquisicionNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder usos = new LongAdder();
+    private final LongAdder tiempoUsoMillis = new LongAdder();
+    private final LongAccumulator maxUsoMillis = new LongAccumulator(Math::max, 0);
+    private final LongAdder usosProlongados = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder conexionesCreadas = new LongAdder();
+
+    /**
+     * Tracker de Micrometer al que se reenvían los eventos; null si no hay registro de métricas.
+     */
+    private volatile MetricsTrackerFactory delegado;
+    private volatile String nombrePool;
+    private volatile PoolStats poolStats;
+    /**
+     * Umbral de detección de fugas del pool en milisegundos; 0 si está desactivado.
+     */
+    private volatile long umbralFugaMillis;
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.nombrePool = poolName;
+        this.poolStats = poolStats;
+        MetricsTrackerFactory factory = delegado;
+        IMetricsTracker tracker = factory == null ? new IMetricsTracker() { } : factory.create(poolName, poolStats);
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+                conexionesCreadas.increment();
+                tracker.recordConnectionCreatedMillis(connectionCreatedMillis);
+            }
+
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                tracker.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+                adquisiciones.increment();
+                tiempoAdquisicionNanos.add(elapsedAcquiredNanos);
+                maxAdquisicionNanos.accumulate(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                tracker.recordConnectionUsageMillis(elapsedBorrowedMillis);
+                usos.increment();
+                tiempoUsoMillis.add(elapsedBorrowedMillis);
+                maxUsoMillis.accumulate(elapsedBorrowedMillis);
+                long umbral = umbralFugaMillis;
+                if (umbral > 0 && elapsedBorrowedMillis >= umbral) {
+                    usosProlongados.increment();
+                }
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                tracker.recordConnectionTimeout();
+                timeouts.increment();
+            }
+
+            @Override
+            public void close() {
+                tracker.close();
+            }
+        };
+    }
+
+    void setDelegado(MetricsTrackerFactory delegado) {
+        this.delegado = delegado;
+    }
+
+    void setUmbralFugaMillis(long umbralFugaMillis) {
+        this.umbralFugaMillis = umbralFugaMillis;
+    }
+
+    /**
+     * Devuelve una instantánea de las métricas del pool.
+     * @return estado del pool y contadores acumulados desde el arranque
+     */
+    public EstadisticasPoolDTO instantanea() {
+        PoolStats stats = poolStats;
+        long n = adquisiciones.sum();
+        long u = usos.sum();
+        return new EstadisticasPoolDTO(nombrePool,
+                stats == null ? 0 : stats.getActiveConnections(),
+                stats == null ? 0 : stats.getIdleConnections(),
+                stats == null ? 0 : stats.getTotalConnections(),
+                stats == null ? 0 : stats.getMaxConnections(),
+                stats == null ? 0 : stats.getPendingThreads(),
+                n,
+                n == 0 ? 0 : tiempoAdquisicionNanos.sum() / (double) n / TimeUnit.MILLISECONDS.toNanos(1),
+                maxAdquisicionNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1),
+                u == 0 ? 0 : tiempoUsoMillis.sum() / (double) u,
+                maxUsoMillis.get(),
+                usosProlongados.sum(),
+                timeouts.sum(),
+                conexionesCreadas.sum());
+    }
+}
@@ -0,0 +1,37 @@
+package breaze.intro_spring.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Filtro de Logback que deja pasar solo una muestra de las sentencias SQL de Hibernate (logger org.hibernate.SQL).
+ * Al ser un TurboFilter actúa antes de crear el evento de log, así que las sentencias descartadas
+ * no generan objetos ni llegan al appender. Se configura en logback-spring.xml.
+ */
+public class MuestreoSqlTurboFilter extends TurboFilter {
+
+    private static final String LOGGER_SQL = "org.hibernate.SQL";
+
+    /**
+     * Fracción de sentencias registradas, entre 0 y 1.
+     */
+    private double tasa = 0.01;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // Las comprobaciones isDebugEnabled() llegan sin mensaje y no se muestrean
+        if (format == null || !LOGGER_SQL.equals(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        return ThreadLocalRandom.current().nextDouble() < tasa ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    public void setTasa(double tasa) {
+        this.tasa = tasa;
+    }
+}
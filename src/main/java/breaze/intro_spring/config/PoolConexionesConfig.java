@@ -0,0 +1,43 @@
+package breaze.intro_spring.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registra MetricasPool en el DataSource de Hikari.
+ * El tracker se asigna antes del primer getConnection, que es cuando Hikari arranca el pool
+ * y deja de aceptar cambios de configuración. Como ocupa el único tracker de Hikari, se encarga también
+ * de conectar el de Micrometer que Spring Boot registraría por su cuenta.
+ */
+@Configuration(proxyBeanMethods = false)
+public class PoolConexionesConfig {
+
+    @Bean
+    public static MetricasPool metricasPool() {
+        return new MetricasPool();
+    }
+
+    @Bean
+    public static BeanPostProcessor metricasPoolPostProcessor(MetricasPool metricasPool,
+                                                              ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                // Antes de la inicialización, porque después ContadorSentenciasPostProcessor envuelve el DataSource.
+                // Se respeta un registro de métricas configurado por otra vía
+                if (bean instanceof HikariDataSource dataSource
+                        && dataSource.getMetricsTrackerFactory() == null && dataSource.getMetricRegistry() == null) {
+                    meterRegistry.ifAvailable(registry -> metricasPool.setDelegado(new MicrometerMetricsTrackerFactory(registry)));
+                    dataSource.setMetricsTrackerFactory(metricasPool);
+                    metricasPool.setUmbralFugaMillis(dataSource.getLeakDetectionThreshold());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,66 @@
+package breaze.intro_spring.controllers;
+
+import breaze.intro_spring.busqueda.TrieAutocompletado;
+import breaze.intro_spring.eventos.CambioCatalogoEvent;
+import breaze.intro_spring.model.dto.SugerenciaDTO;
+import breaze.intro_spring.services.IAutocompletadoService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Controlador REST del autocompletado de la caja de búsqueda.
+ * Sugiere títulos de libros y nombres de autores a partir de lo que el usuario lleva escrito.
+ */
+@RestController
+@RequestMapping("/autocompletar")
+public class AutocompletarController {
+
+    /**
+     * Servicio de autocompletado.
+     */
+    private final IAutocompletadoService autocompletadoService;
+
+    /**
+     * Número máximo de sugerencias por consulta.
+     */
+    private static final int LIMITE_MAXIMO = TrieAutocompletado.MAX_SUGERENCIAS;
+
+    /**
+     * Constructor que inyecta el servicio de autocompletado.
+     * @param autocompletadoService servicio de autocompletado
+     */
+    public AutocompletarController(IAutocompletadoService autocompletadoService) {
+        this.autocompletadoService = autocompletadoService;
+    }
+
+    /**
+     * Sugiere libros y autores cuyo texto contiene una palabra que empieza por el prefijo.
+     * No distingue mayúsculas ni acentos.
+     * @param q texto escrito por el usuario
+     * @param limite número máximo de sugerencias (máximo 16)
+     * @return ResponseEntity con las sugerencias ordenadas por popularidad
+     */
+    @GetMapping
+    public ResponseEntity<List<SugerenciaDTO>> autocompletar(@RequestParam String q,
+                                                            @RequestParam(defaultValue = "10") int limite) {
+        return ResponseEntity.ok(autocompletadoService.sugerir(q, Math.max(1, Math.min(limite, LIMITE_MAXIMO))));
+    }
+
+    /**
+     * Registra que el usuario eligió una sugerencia, para ordenar mejor las siguientes.
+     * @param tipo AUTOR o LIBRO
+     * @param id identificador de la entidad elegida
+     * @return ResponseEntity vacío
+     */
+    @PostMapping("/seleccion")
+    public ResponseEntity<Void> registrarSeleccion(@RequestParam CambioCatalogoEvent.Entidad tipo, @RequestParam Long id) {
+        autocompletadoService.registrarSeleccion(tipo, id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,12 +1,19 @@
 package breaze.intro_spring.controllers;
 
+import breaze.intro_spring.model.dto.AutorDTO;
+import breaze.intro_spring.model.dto.EstadisticasAutoresDTO;
+import breaze.intro_spring.model.dto.ResultadoBusquedaDTO;
 import breaze.intro_spring.model.entidades.Autor;
+import breaze.intro_spring.respuestas.CacheRespuestas;
+import breaze.intro_spring.respuestas.VersionCatalogo;
 import breaze.intro_spring.services.IAutorService;
+import breaze.intro_spring.services.IEstadisticasService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
+import java.util.Optional;
 
 /**
  * Controlador REST para la gestión de autores.
@@ -21,38 +28,66 @@ public class AutorController {
      * Servicio para operaciones relacionadas con autores.
      */
     private final IAutorService autorService;
+    /**
+     * Servicio con el resumen de estadísticas del catálogo.
+     */
+    private final IEstadisticasService estadisticasService;
+    /**
+     * Versiones del catálogo con las que se calculan los ETag.
+     */
+    private final VersionCatalogo versionCatalogo;
+    /**
+     * Respuestas ya serializadas de los endpoints de lectura.
+     */
+    private final CacheRespuestas cacheRespuestas;
+
+    /**
+     * Tamaño máximo de página permitido en las búsquedas.
+     */
+    private static final int TAMANIO_MAXIMO_BUSQUEDA = 100;
 
     /**
      * Constructor que inyecta el servicio de autores.
      * @param autorService servicio de autores
+     * @param estadisticasService servicio de estadísticas
+     * @param versionCatalogo versiones del catálogo
+     * @param cacheRespuestas caché de respuestas serializadas
      */
-    public AutorController(IAutorService autorService) {
+    public AutorController(IAutorService autorService, IEstadisticasService estadisticasService,
+                           VersionCatalogo versionCatalogo, CacheRespuestas cacheRespuestas) {
         this.autorService = autorService;
+        this.estadisticasService = estadisticasService;
+        this.versionCatalogo = versionCatalogo;
+        this.cacheRespuestas = cacheRespuestas;
     }
 
     /**
-     * Obtiene la lista de todos los autores registrados.
+     * Obtiene la lista de todos los autores registrados, en JSON, Smile o CBOR según la cabecera Accept.
      * Solo usuarios con el rol USER pueden acceder.
+     * Responde 304 sin consultar el repositorio si el ETag de If-None-Match sigue vigente.
+     * @param request petición, para evaluar If-None-Match
      * @return ResponseEntity con la lista de autores
      */
     @PreAuthorize("hasAnyRole('USER')")
     @GetMapping("/listar")
-    public ResponseEntity<List<Autor>> getAllAutores() {
-        List<Autor> autores = autorService.obtenerAutores();
-        return ResponseEntity.ok(autores);
+    public ResponseEntity<byte[]> getAllAutores(WebRequest request) {
+        return cacheRespuestas.responder(request, new CacheRespuestas.Clave(CacheRespuestas.Recurso.AUTORES, ""),
+                versionCatalogo.etagAutores(), () -> Optional.of(autorService.obtenerAutores()));
     }
 
     /**
      * Busca un autor por su ID.
      * Solo usuarios con el rol USER pueden acceder.
+     * Responde 304 sin consultar el repositorio si el ETag de If-None-Match sigue vigente.
      * @param id identificador del autor
-     * @return ResponseEntity con el autor encontrado o 404 si no existe
+     * @param request petición, para evaluar If-None-Match
+     * @return ResponseEntity con el autor encontrado (JSON, Smile o CBOR) o 404 si no existe
      */
     @PreAuthorize("hasAnyRole('USER')")
     @GetMapping("/buscar/{id}")
-    public ResponseEntity<Autor> getAutorById(@PathVariable Long id) {
-        return autorService.obtenerAutor(id).map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<byte[]> getAutorById(@PathVariable Long id, WebRequest request) {
+        return cacheRespuestas.responder(request, new CacheRespuestas.Clave(CacheRespuestas.Recurso.AUTOR, id.toString()),
+                versionCatalogo.etagAutor(id), () -> autorService.obtenerAutor(id));
     }
 
     /**
@@ -63,7 +98,7 @@ public class AutorController {
      */
     @PreAuthorize("hasRole('ADMIN')") // Solo ADMIN puede crear
     @PostMapping("/crear")
-    public ResponseEntity<Autor> createAutor(@RequestBody Autor autor) {
+    public ResponseEntity<AutorDTO> createAutor(@RequestBody Autor autor) {
         return ResponseEntity.ok().body(autorService.crearAutor(autor));
     }
 
@@ -76,7 +111,7 @@ public class AutorController {
      */
     @PreAuthorize("hasRole('ADMIN')") // Solo ADMIN puede actualizar
     @PutMapping("/actualizar/{id}")
-    public ResponseEntity<Autor> updateAutor(@PathVariable Long id, @RequestBody Autor autorDetails) {
+    public ResponseEntity<AutorDTO> updateAutor(@PathVariable Long id, @RequestBody Autor autorDetails) {
         return autorService.actualizarAutor(id, autorDetails)
                 .map(updatedAutor -> ResponseEntity.ok().body(updatedAutor))
                 .orElse(ResponseEntity.notFound().build());
@@ -116,19 +151,37 @@ public class AutorController {
      * @return ResponseEntity con el autor actualizado o 404 si no existe
      */
     @PatchMapping("/actualizacion_parcial/{id}")
-    public ResponseEntity<Autor> actualizacionParcialAutor(@PathVariable Long id, @RequestBody Autor autorDetails) {
+    public ResponseEntity<AutorDTO> actualizacionParcialAutor(@PathVariable Long id, @RequestBody Autor autorDetails) {
         return autorService.actualizacionParcial(id, autorDetails)
                 .map(updateAutor-> ResponseEntity.ok().body(updateAutor))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     /**
-     * Busca autores cuyo nombre o nacionalidad contenga el texto proporcionado.
+     * Busca autores por nombre o nacionalidad, ordenados por relevancia.
+     * Admite prefijos, errores tipográficos leves y no distingue mayúsculas ni acentos.
      * @param texto texto a buscar
-     * @return ResponseEntity con la lista de autores encontrados
+     * @param pagina número de página, empezando en 0
+     * @param tamanio autores por página (máximo 100)
+     * @return ResponseEntity con la página de autores encontrados
      */
     @GetMapping("/buscar_por_texto")
-    public ResponseEntity<List<Autor>> buscarAutoresPorTexto(@RequestParam String texto) {
-        return ResponseEntity.ok(autorService.buscarAutoresPorTexto(texto));
+    public ResponseEntity<ResultadoBusquedaDTO<AutorDTO>> buscarAutoresPorTexto(@RequestParam String texto,
+                                                                              @RequestParam(defaultValue = "0") int pagina,
+                                                                              @RequestParam(defaultValue = "20") int tamanio) {
+        return ResponseEntity.ok(autorService.buscarAutoresPorTexto(texto, Math.max(0, pagina),
+                Math.max(1, Math.min(tamanio, TAMANIO_MAXIMO_BUSQUEDA))));
+    }
+
+    /**
+     * Devuelve las estadísticas del catálogo: autores por nacionalidad, autores con más libros
+     * y libros por año de publicación. Se sirven desde un resumen en memoria.
+     * @param limiteAutores número máximo de autores en la lista de libros por autor (máximo 1000)
+     * @return ResponseEntity con las estadísticas
+     */
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @GetMapping("/estadisticas")
+    public ResponseEntity<EstadisticasAutoresDTO> getEstadisticas(@RequestParam(defaultValue = "100") int limiteAutores) {
+        return ResponseEntity.ok(estadisticasService.obtenerEstadisticas(Math.max(1, Math.min(limiteAutores, 1000))));
     }
 }
\ No newline at end of file
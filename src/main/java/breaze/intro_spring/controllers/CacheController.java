@@ -0,0 +1,66 @@
+package breaze.intro_spring.controllers;
+
+import breaze.intro_spring.config.CacheConfig;
+import breaze.intro_spring.model.dto.EstadisticaCacheDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Controlador REST con las métricas de la caché de segundo nivel.
+ * Expone aciertos, fallos y tasa de aciertos por región para vigilar su efectividad.
+ */
+@RestController
+@RequestMapping("/cache")
+public class CacheController {
+
+    /**
+     * Estadísticas de Hibernate, activadas con hibernate.generate_statistics.
+     */
+    private final Statistics statistics;
+
+    /**
+     * Constructor que obtiene las estadísticas de la fábrica de sesiones.
+     * @param entityManagerFactory fábrica de entity managers de la aplicación
+     */
+    public CacheController(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Devuelve las estadísticas de cada región de la caché de segundo nivel.
+     * Solo usuarios con el rol ADMIN pueden acceder.
+     * @return ResponseEntity con una entrada por región
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/estadisticas")
+    public ResponseEntity<List<EstadisticaCacheDTO>> getEstadisticas() {
+        List<EstadisticaCacheDTO> regiones = new ArrayList<>();
+        for (String region : CacheConfig.REGIONES_ENTIDAD) {
+            regiones.add(toDTO(region, statistics.getDomainDataRegionStatistics(region)));
+        }
+        for (String region : CacheConfig.REGIONES_CONSULTA) {
+            CacheRegionStatistics estadisticas = statistics.getQueryRegionStatistics(region);
+            if (estadisticas != null) {
+                regiones.add(toDTO(region, estadisticas));
+            }
+        }
+        return ResponseEntity.ok(regiones);
+    }
+
+    private static EstadisticaCacheDTO toDTO(String region, CacheRegionStatistics estadisticas) {
+        long aciertos = estadisticas.getHitCount();
+        long fallos = estadisticas.getMissCount();
+        double tasa = aciertos + fallos == 0 ? 0 : (double) aciertos / (aciertos + fallos);
+        return new EstadisticaCacheDTO(region, aciertos, fallos, estadisticas.getPutCount(), tasa);
+    }
+}
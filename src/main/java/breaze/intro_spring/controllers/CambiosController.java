@@ -0,0 +1,64 @@
+package breaze.intro_spring.controllers;
+
+import breaze.intro_spring.cambios.FeedCambios;
+import breaze.intro_spring.model.dto.CambiosDTO;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Controlador REST del feed de cambios del catálogo (autores, libros y categorías de libros).
+ * Los servicios que necesitan estar al día pueden suscribirse por SSE o consultar periódicamente
+ * los cambios desde su última secuencia, en lugar de volver a leer /libro/consultar y /autores/listar.
+ */
+@RestController
+@RequestMapping("/cambios")
+public class CambiosController {
+
+    /**
+     * Número máximo de cambios por consulta.
+     */
+    private static final int LIMITE_MAXIMO = 1000;
+
+    private final FeedCambios feedCambios;
+
+    public CambiosController(FeedCambios feedCambios) {
+        this.feedCambios = feedCambios;
+    }
+
+    /**
+     * Abre un flujo Server-Sent Events con los cambios del catálogo.
+     * Cada evento "cambio" lleva como id su secuencia; al reconectar, el navegador la reenvía en Last-Event-ID.
+     * Un evento "reinicio" indica que los cambios pedidos ya no están en memoria: hay que recargar el catálogo
+     * y volver a suscribirse con since igual a la secuencia recibida.
+     * @param since última secuencia procesada; omitir para recibir solo los cambios nuevos
+     * @param ultimoEvento cabecera Last-Event-ID, usada si no se indica since
+     * @return emisor del flujo
+     */
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter suscribir(@RequestParam(required = false) Long since,
+                                @RequestHeader(value = "Last-Event-ID", required = false) Long ultimoEvento) {
+        return feedCambios.suscribir(since != null ? since : ultimoEvento);
+    }
+
+    /**
+     * Devuelve los cambios posteriores a since, para recuperar los perdidos durante una desconexión
+     * o como alternativa al flujo SSE. Sin since solo devuelve la secuencia actual.
+     * @param since última secuencia procesada
+     * @param limite número máximo de cambios (máximo 1000)
+     * @return ResponseEntity con los cambios y la secuencia para la siguiente consulta
+     */
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<CambiosDTO> consultar(@RequestParam(required = false) Long since,
+                                                @RequestParam(defaultValue = "500") int limite) {
+        return ResponseEntity.ok(feedCambios.consultar(since, Math.max(1, Math.min(limite, LIMITE_MAXIMO))));
+    }
+}
@@ -2,17 +2,39 @@ package breaze.intro_spring.controllers;
 
 import breaze.intro_spring.model.dto.CrearLibroInDTO;
 import breaze.intro_spring.model.dto.CrearLibroOutDTO;
+import breaze.intro_spring.model.dto.LibroDTO;
+import breaze.intro_spring.model.dto.ResultadoBusquedaDTO;
+import breaze.intro_spring.model.dto.ResultadoImportacionDTO;
 import breaze.intro_spring.model.entidades.Libro;
+import breaze.intro_spring.respuestas.CacheRespuestas;
+import breaze.intro_spring.respuestas.Formato;
+import breaze.intro_spring.respuestas.MapeadoresFormato;
+import breaze.intro_spring.respuestas.VersionCatalogo;
+import breaze.intro_spring.services.IImportacionLibroService;
 import breaze.intro_spring.services.ILibroService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import jakarta.servlet.http.HttpServletRequest;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * Controlador REST para la gestión de libros.
- * Proporciona endpoints para crear, consultar y actualizar libros de forma parcial.
+ * Proporciona endpoints para crear, importar, consultar y actualizar libros de forma parcial.
  * Utiliza un servicio para la lógica de negocio y acceso a datos.
  */
 @RestController
@@ -22,17 +44,62 @@ public class LibroController {
      * Servicio para operaciones relacionadas con libros.
      */
     private ILibroService libroService;
+    /**
+     * Writer de Jackson para serializar libros en el modo NDJSON.
+     */
+    private final ObjectWriter libroWriter;
+    /**
+     * Servicio para la importación masiva de libros.
+     */
+    private final IImportacionLibroService importacionLibroService;
+    /**
+     * Readers de Jackson para leer libros uno a uno en la importación, uno por formato de entrada.
+     */
+    private final Map<Formato, ObjectReader> crearLibroReaders = new EnumMap<>(Formato.class);
+    /**
+     * Versiones del catálogo con las que se calculan los ETag.
+     */
+    private final VersionCatalogo versionCatalogo;
+    /**
+     * Respuestas ya serializadas de los endpoints de lectura.
+     */
+    private final CacheRespuestas cacheRespuestas;
+
+    /**
+     * Tamaño máximo de página permitido en la consulta paginada.
+     */
+    private static final int TAMANIO_MAXIMO = 500;
+    /**
+     * Tamaño máximo de página permitido en las búsquedas.
+     */
+    private static final int TAMANIO_MAXIMO_BUSQUEDA = 100;
 
     /**
      * Constructor que inyecta el servicio de libros.
      * @param libroService servicio de libros
+     * @param importacionLibroService servicio de importación masiva
+     * @param objectMapper mapper de Jackson configurado por Spring
+     * @param mapeadores mappers de Jackson de los formatos binarios
+     * @param versionCatalogo versiones del catálogo
+     * @param cacheRespuestas caché de respuestas serializadas
      */
-    public LibroController(ILibroService libroService) {
+    public LibroController(ILibroService libroService, IImportacionLibroService importacionLibroService, ObjectMapper objectMapper,
+                           MapeadoresFormato mapeadores, VersionCatalogo versionCatalogo, CacheRespuestas cacheRespuestas) {
         this.libroService = libroService;
+        this.importacionLibroService = importacionLibroService;
+        this.versionCatalogo = versionCatalogo;
+        this.cacheRespuestas = cacheRespuestas;
+        for (Formato formato : Formato.values()) {
+            crearLibroReaders.put(formato, mapeadores.mapper(formato).readerFor(CrearLibroInDTO.class));
+        }
+        // Sin cerrar ni vaciar el stream en cada valor: el búfer del servlet agrupa las filas
+        this.libroWriter = objectMapper.writerFor(LibroDTO.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     /**
-     * Crea un nuevo libro.
+     * Crea un nuevo libro. Acepta el cuerpo en JSON, Smile o CBOR.
      * @param  crearLibroInDTO del libro a crear
      * @return ResponseEntity con el libro creado
      */
@@ -43,13 +110,85 @@ public class LibroController {
     }
 
     /**
-     * Consulta todos los libros registrados.
-     * @return ResponseEntity con la lista de libros
+     * Importa libros en bloque desde un arreglo JSON o desde NDJSON (un libro por línea).
+     * También acepta Smile y CBOR, con un arreglo raíz o una secuencia de valores.
+     * El cuerpo se lee en streaming, sin cargarlo completo en memoria.
+     * @param request petición con el cuerpo a importar
+     * @return ResponseEntity con el resumen de la importación
+     * @throws IOException si falla la lectura del cuerpo
+     */
+    @PostMapping(value = "/importar", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+            Formato.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ResultadoImportacionDTO> importarLibros(HttpServletRequest request) throws IOException {
+        // readValues recorre tanto los elementos de un arreglo raíz como valores separados por saltos de línea
+        ObjectReader reader = crearLibroReaders.get(Formato.deContentType(request.getContentType()));
+        try (MappingIterator<CrearLibroInDTO> libros = reader.readValues(request.getInputStream())) {
+            return ResponseEntity.ok(importacionLibroService.importarLibros(libros));
+        }
+    }
+
+    /**
+     * Consulta los libros registrados de forma paginada por cursor, en JSON, Smile o CBOR según la cabecera Accept.
+     * Responde 304 sin consultar el repositorio si el ETag de If-None-Match sigue vigente.
+     * @param cursor valor de siguienteCursor de la página anterior; omitir para la primera página
+     * @param tamanio número de libros por página (máximo 500)
+     * @param request petición, para evaluar If-None-Match
+     * @return ResponseEntity con la página de libros
+     */
+    @GetMapping(value = "/consultar", produces = {MediaType.APPLICATION_JSON_VALUE, Formato.APPLICATION_SMILE_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<byte[]> consultarTodos(@RequestParam(required = false) Long cursor,
+                                                 @RequestParam(defaultValue = "50") int tamanio,
+                                                 WebRequest request) {
+        int tamanioPagina = Math.max(1, Math.min(tamanio, TAMANIO_MAXIMO));
+        return cacheRespuestas.responder(request,
+                new CacheRespuestas.Clave(CacheRespuestas.Recurso.LIBROS, (cursor == null ? "" : cursor) + "-" + tamanioPagina),
+                versionCatalogo.etagLibros(cursor, tamanioPagina),
+                () -> Optional.of(libroService.obtenerLibros(cursor, tamanioPagina)));
+    }
+
+    /**
+     * Consulta todos los libros como NDJSON (un libro por línea), escribiendo cada fila
+     * en la respuesta a medida que se lee de la base de datos.
+     * Se activa con la cabecera Accept: application/x-ndjson.
+     * El cuerpo no se guarda en caché, pero responde 304 si el ETag de If-None-Match sigue vigente.
+     * @param request petición, para evaluar If-None-Match
+     * @return ResponseEntity con el cuerpo en streaming
+     */
+    @GetMapping(value = "/consultar", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> consultarTodosStream(WebRequest request) {
+        // ETag débil: Tomcat no comprime respuestas con ETag fuerte y este cuerpo solo se comprime al vuelo
+        String etag = "W/\"" + versionCatalogo.etagLibrosCompleto() + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        StreamingResponseBody cuerpo = out -> libroService.recorrerLibros(libro -> {
+            try {
+                libroWriter.writeValue(out, libro);
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        // checkNotModified ya añadió la cabecera ETag; el handler de streaming no la deduplica
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(cuerpo);
+    }
+
+    /**
+     * Busca libros por título, ordenados por relevancia.
+     * Admite prefijos, errores tipográficos leves y no distingue mayúsculas ni acentos.
+     * @param texto texto a buscar
+     * @param pagina número de página, empezando en 0
+     * @param tamanio libros por página (máximo 100)
+     * @return ResponseEntity con la página de libros encontrados
      */
-    @GetMapping("/consultar")
-    public ResponseEntity<List<Libro>> consultarTodos() {
-        List<Libro> libros = libroService.obtenerLibros();
-        return ResponseEntity.ok(libros);
+    @GetMapping("/buscar")
+    public ResponseEntity<ResultadoBusquedaDTO<LibroDTO>> buscarLibros(@RequestParam String texto,
+                                                                      @RequestParam(defaultValue = "0") int pagina,
+                                                                      @RequestParam(defaultValue = "20") int tamanio) {
+        return ResponseEntity.ok(libroService.buscarLibros(texto, Math.max(0, pagina),
+                Math.max(1, Math.min(tamanio, TAMANIO_MAXIMO_BUSQUEDA))));
     }
 
     /**
@@ -60,7 +199,7 @@ public class LibroController {
      * @return ResponseEntity con el libro actualizado o 404 si no existe
      */
     @PatchMapping("/actualizar/{id}")
-    public ResponseEntity<Libro> actualizarLibroParcial(@PathVariable Long id, @RequestBody Libro libroDetails) {
+    public ResponseEntity<LibroDTO> actualizarLibroParcial(@PathVariable Long id, @RequestBody Libro libroDetails) {
         return libroService.actualizarParcial(id, libroDetails)
                 .map(updatedLibro -> ResponseEntity.ok().body(updatedLibro))
                 .orElse(ResponseEntity.notFound().build());
@@ -0,0 +1,35 @@
+package breaze.intro_spring.controllers;
+
+import breaze.intro_spring.config.MetricasPool;
+import breaze.intro_spring.model.dto.EstadisticasPoolDTO;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controlador REST con las métricas del pool de conexiones a la base de datos.
+ * Permite ver conexiones activas, inactivas, hilos en espera y tiempos de adquisición y uso.
+ */
+@RestController
+@RequestMapping("/pool")
+public class PoolController {
+
+    private final MetricasPool metricasPool;
+
+    public PoolController(MetricasPool metricasPool) {
+        this.metricasPool = metricasPool;
+    }
+
+    /**
+     * Devuelve el estado y los contadores del pool de conexiones.
+     * Solo usuarios con el rol ADMIN pueden acceder.
+     * @return ResponseEntity con las métricas del pool
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/estadisticas")
+    public ResponseEntity<EstadisticasPoolDTO> getEstadisticas() {
+        return ResponseEntity.ok(metricasPool.instantanea());
+    }
+}
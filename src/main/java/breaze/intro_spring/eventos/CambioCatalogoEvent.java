@@ -0,0 +1,28 @@
+package breaze.intro_spring.eventos;
+
+/**
+ * Evento publicado por los servicios tras cada escritura sobre el catálogo.
+ * Lo consumen los componentes que mantienen copias derivadas de los datos (por ejemplo el índice de búsqueda),
+ * normalmente con @TransactionalEventListener para procesarlo solo si la transacción se confirma.
+ * @param entidad tipo de entidad modificada
+ * @param operacion operación realizada
+ * @param id identificador de la entidad modificada
+ * @param datos DTO con el estado resultante; null en las eliminaciones
+ */
+public record CambioCatalogoEvent(Entidad entidad, Operacion operacion, Long id, Object datos) {
+
+    /**
+     * Entidades del catálogo que publican cambios.
+     * En LIBRO_CATEGORIA el id es el del libro y los datos un LibroCategoriaDTO.
+     */
+    public enum Entidad {
+        AUTOR, LIBRO, LIBRO_CATEGORIA
+    }
+
+    /**
+     * Operaciones de escritura.
+     */
+    public enum Operacion {
+        CREAR, ACTUALIZAR, ACTUALIZACION_PARCIAL, ELIMINAR
+    }
+}
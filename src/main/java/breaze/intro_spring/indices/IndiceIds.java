@@ -0,0 +1,169 @@
+package breaze.intro_spring.indices;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Conjunto de IDs en memoria representado como un bitmap: el bit n indica si existe el ID n.
+ * Pensado para tablas con IDs autoincrementales y densos, donde ocupa un bit por ID.
+ * Las lecturas no bloquean ni reservan memoria; las escrituras se serializan con el monitor del objeto.
+ */
+public class IndiceIds {
+    /**
+     * Palabras del bitmap. Se reemplaza por una copia mayor cuando un ID no cabe.
+     */
+    private volatile AtomicLongArray palabras = new AtomicLongArray(16);
+    /**
+     * Indica si el índice ya se cargó desde la base de datos. Hasta entonces no es fiable.
+     */
+    private volatile boolean cargado;
+    /**
+     * Cambios aplicados mientras se reconstruye el índice (ID → añadido/eliminado),
+     * para no perderlos al reemplazar el bitmap por la nueva carga. Null fuera de una reconciliación.
+     */
+    private Map<Long, Boolean> cambiosPendientes;
+
+    /**
+     * Indica si el ID está en el índice.
+     * @param id identificador a comprobar
+     * @return true si el ID está registrado
+     */
+    public boolean contiene(Long id) {
+        return id != null && contiene(id.longValue());
+    }
+
+    /**
+     * Indica si el ID está en el índice, sin conversión a Long.
+     * @param id identificador a comprobar
+     * @return true si el ID está registrado
+     */
+    public boolean contiene(long id) {
+        if (id < 0) {
+            return false;
+        }
+        AtomicLongArray actual = palabras;
+        long palabra = id >>> 6;
+        return palabra < actual.length() && (actual.get((int) palabra) & (1L << id)) != 0;
+    }
+
+    /**
+     * Registra un ID.
+     * @param id identificador a añadir
+     */
+    public synchronized void agregar(long id) {
+        if (id < 0) {
+            return;
+        }
+        int palabra = indice(id);
+        if (palabra >= palabras.length()) {
+            palabras = copiar(palabras, palabra + 1);
+        }
+        palabras.getAndUpdate(palabra, valor -> valor | (1L << id));
+        if (cambiosPendientes != null) {
+            cambiosPendientes.put(id, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Elimina un ID.
+     * @param id identificador a eliminar
+     */
+    public synchronized void eliminar(long id) {
+        if (id < 0) {
+            return;
+        }
+        int palabra = indice(id);
+        if (palabra < palabras.length()) {
+            palabras.getAndUpdate(palabra, valor -> valor & ~(1L << id));
+        }
+        if (cambiosPendientes != null) {
+            cambiosPendientes.put(id, Boolean.FALSE);
+        }
+    }
+
+    /**
+     * Marca el inicio de una reconstrucción: desde aquí se anotan los cambios que deben
+     * sobrevivir al reemplazo del bitmap. Debe llamarse antes de leer los IDs de la base de datos.
+     */
+    public synchronized void iniciarCarga() {
+        cambiosPendientes = new HashMap<>();
+    }
+
+    /**
+     * Reemplaza el contenido del índice por los IDs leídos de la base de datos,
+     * reaplicando los cambios registrados desde {@link #iniciarCarga()}.
+     * El nuevo bitmap se completa antes de publicarlo, así que las lecturas concurrentes
+     * ven el bitmap anterior o el nuevo completo, nunca uno a medio llenar.
+     * @param ids IDs existentes en la tabla
+     */
+    public synchronized void reemplazar(Iterable<Long> ids) {
+        long maximo = -1;
+        for (Long id : ids) {
+            if (id != null) {
+                maximo = Math.max(maximo, id);
+            }
+        }
+        AtomicLongArray nuevas = new AtomicLongArray(Math.max(16, indice(Math.max(maximo, 0)) + 1));
+        for (Long id : ids) {
+            if (id != null && id >= 0) {
+                nuevas.getAndUpdate(indice(id), valor -> valor | (1L << id));
+            }
+        }
+        if (cambiosPendientes != null) {
+            for (Map.Entry<Long, Boolean> cambio : cambiosPendientes.entrySet()) {
+                long id = cambio.getKey();
+                int palabra = indice(id);
+                if (cambio.getValue()) {
+                    if (palabra >= nuevas.length()) {
+                        nuevas = copiar(nuevas, palabra + 1);
+                    }
+                    nuevas.getAndUpdate(palabra, valor -> valor | (1L << id));
+                } else if (palabra < nuevas.length()) {
+                    nuevas.getAndUpdate(palabra, valor -> valor & ~(1L << id));
+                }
+            }
+            cambiosPendientes = null;
+        }
+        // Publica el bitmap completo; cargado se activa después para que quien lo vea lea ya el nuevo bitmap
+        palabras = nuevas;
+        cargado = true;
+    }
+
+    /**
+     * Indica si el índice ya refleja el contenido de la tabla.
+     * @return true tras la primera carga completa
+     */
+    public boolean isCargado() {
+        return cargado;
+    }
+
+    /**
+     * Cuenta los IDs registrados.
+     * @return número de bits activos
+     */
+    public long tamanio() {
+        AtomicLongArray actual = palabras;
+        long total = 0;
+        for (int i = 0; i < actual.length(); i++) {
+            total += Long.bitCount(actual.get(i));
+        }
+        return total;
+    }
+
+    private static int indice(long id) {
+        long palabra = id >>> 6;
+        if (palabra >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("ID fuera del rango del índice: " + id);
+        }
+        return (int) palabra;
+    }
+
+    private static AtomicLongArray copiar(AtomicLongArray origen, int minimo) {
+        AtomicLongArray copia = new AtomicLongArray(Math.max(minimo, origen.length() * 2));
+        for (int i = 0; i < origen.length(); i++) {
+            copia.set(i, origen.get(i));
+        }
+        return copia;
+    }
+}
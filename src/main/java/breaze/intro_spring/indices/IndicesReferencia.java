@@ -0,0 +1,29 @@
+package breaze.intro_spring.indices;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Índices en memoria con los IDs de las tablas de referencia (autor y categoria).
+ * Permiten validar la existencia de un ID sin consultar la base de datos.
+ * Los carga y reconcilia ReconciliadorIndices; IndicesReferenciaListener los mantiene tras cada commit.
+ * No depende de repositorios para que el listener JPA pueda crearse junto con el EntityManagerFactory.
+ */
+@Component
+public class IndicesReferencia {
+    /**
+     * IDs de autores existentes.
+     */
+    private final IndiceIds autores = new IndiceIds();
+    /**
+     * IDs de categorías existentes.
+     */
+    private final IndiceIds categorias = new IndiceIds();
+
+    public IndiceIds getAutores() {
+        return autores;
+    }
+
+    public IndiceIds getCategorias() {
+        return categorias;
+    }
+}
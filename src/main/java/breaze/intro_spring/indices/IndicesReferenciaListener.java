@@ -0,0 +1,77 @@
+package breaze.intro_spring.indices;
+
+import breaze.intro_spring.model.entidades.Autor;
+import breaze.intro_spring.model.entidades.Categoria;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Listener JPA que mantiene IndicesReferencia al insertar o eliminar autores y categorías.
+ * Los cambios se aplican tras el commit para que un rollback no deje IDs inexistentes en el índice.
+ * Hibernate lo obtiene como bean de Spring, por lo que admite inyección por constructor.
+ */
+@Component
+public class IndicesReferenciaListener {
+    private final IndicesReferencia indices;
+
+    public IndicesReferenciaListener(IndicesReferencia indices) {
+        this.indices = indices;
+    }
+
+    @PostPersist
+    public void alInsertar(Object entidad) {
+        IndiceIds indice = indicePara(entidad);
+        Long id = idDe(entidad);
+        if (indice != null && id != null) {
+            trasCommit(() -> indice.agregar(id));
+        }
+    }
+
+    @PostRemove
+    public void alEliminar(Object entidad) {
+        IndiceIds indice = indicePara(entidad);
+        Long id = idDe(entidad);
+        if (indice != null && id != null) {
+            trasCommit(() -> indice.eliminar(id));
+        }
+    }
+
+    private IndiceIds indicePara(Object entidad) {
+        if (entidad instanceof Autor) {
+            return indices.getAutores();
+        }
+        if (entidad instanceof Categoria) {
+            return indices.getCategorias();
+        }
+        return null;
+    }
+
+    private static Long idDe(Object entidad) {
+        if (entidad instanceof Autor autor) {
+            return autor.getId();
+        }
+        if (entidad instanceof Categoria categoria) {
+            return categoria.getId();
+        }
+        return null;
+    }
+
+    /**
+     * Ejecuta la acción tras el commit de la transacción actual, o de inmediato si no hay ninguna.
+     */
+    private static void trasCommit(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package breaze.intro_spring.indices;
+
+import breaze.intro_spring.repositorios.AutorRepository;
+import breaze.intro_spring.repositorios.CategoriaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Carga los índices de referencia al arrancar y los reconcilia periódicamente con la base de datos,
+ * para recoger cambios hechos fuera de la aplicación o por consultas masivas que no disparan listeners JPA.
+ */
+@Component
+public class ReconciliadorIndices {
+    private static final Logger log = LoggerFactory.getLogger(ReconciliadorIndices.class);
+
+    private final IndicesReferencia indices;
+    private final AutorRepository autorRepository;
+    private final CategoriaRepository categoriaRepository;
+
+    public ReconciliadorIndices(IndicesReferencia indices, AutorRepository autorRepository,
+                                CategoriaRepository categoriaRepository) {
+        this.indices = indices;
+        this.autorRepository = autorRepository;
+        this.categoriaRepository = categoriaRepository;
+    }
+
+    /**
+     * Reconstruye ambos índices a partir de los IDs de la base de datos.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${indices.reconciliacion-ms:300000}", fixedDelayString = "${indices.reconciliacion-ms:300000}")
+    public void reconciliar() {
+        IndiceIds autores = indices.getAutores();
+        autores.iniciarCarga();
+        autores.reemplazar(autorRepository.buscarIds());
+        IndiceIds categorias = indices.getCategorias();
+        categorias.iniciarCarga();
+        categorias.reemplazar(categoriaRepository.buscarIds());
+        log.debug("Índices de referencia reconciliados: {} autores, {} categorías", autores.tamanio(), categorias.tamanio());
+    }
+}
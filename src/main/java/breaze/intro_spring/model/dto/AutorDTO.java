@@ -0,0 +1,14 @@
+package breaze.intro_spring.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AutorDTO {
+    private Long id;
+    private String nombre;
+    private String nacionalidad;
+}
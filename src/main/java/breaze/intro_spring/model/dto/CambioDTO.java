@@ -0,0 +1,23 @@
+package breaze.intro_spring.model.dto;
+
+import breaze.intro_spring.eventos.CambioCatalogoEvent;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CambioDTO {
+    // Posición del cambio en el feed; creciente también entre reinicios de la aplicación
+    private Long secuencia;
+    private CambioCatalogoEvent.Entidad entidad;
+    private CambioCatalogoEvent.Operacion operacion;
+    // En LIBRO_CATEGORIA es el id del libro
+    private Long id;
+    // AutorDTO, LibroDTO o LibroCategoriaDTO con el estado resultante; null en las eliminaciones
+    private Object datos;
+    private Instant fecha;
+}
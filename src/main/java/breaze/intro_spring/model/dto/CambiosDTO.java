@@ -0,0 +1,18 @@
+package breaze.intro_spring.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CambiosDTO {
+    private List<CambioDTO> cambios;
+    // Valor de since para la siguiente consulta
+    private Long ultimaSecuencia;
+    // true si los cambios pedidos ya no están en memoria: hay que recargar el catálogo y seguir desde ultimaSecuencia
+    private boolean reinicio;
+}
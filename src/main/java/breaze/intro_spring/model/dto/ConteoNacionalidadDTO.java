@@ -0,0 +1,13 @@
+package breaze.intro_spring.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ConteoNacionalidadDTO {
+    private String nacionalidad;
+    private Long autores;
+}
@@ -0,0 +1,16 @@
+package breaze.intro_spring.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EstadisticaCacheDTO {
+    private String region;
+    private long aciertos;
+    private long fallos;
+    private long inserciones;
+    private double tasaAciertos;
+}
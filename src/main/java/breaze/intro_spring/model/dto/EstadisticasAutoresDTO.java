@@ -0,0 +1,20 @@
+package breaze.intro_spring.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EstadisticasAutoresDTO {
+    private List<ConteoNacionalidadDTO> autoresPorNacionalidad;
+    // Autores con más libros, de mayor a menor
+    private List<LibrosPorAutorDTO> librosPorAutor;
+    private List<ConteoAnioDTO> librosPorAnio;
+    // Última vez que el resumen se recalculó por completo desde la base de datos
+    private Instant actualizadoEn;
+}
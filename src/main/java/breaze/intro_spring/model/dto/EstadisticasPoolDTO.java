@@ -0,0 +1,28 @@
+package breaze.intro_spring.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EstadisticasPoolDTO {
+    private String pool;
+    // Estado actual del pool
+    private int activas;
+    private int inactivas;
+    private int total;
+    private int maximo;
+    private int pendientes;
+    // Acumulados desde el arranque
+    private long adquisiciones;
+    private double adquisicionMediaMs;
+    private double adquisicionMaximaMs;
+    private double usoMedioMs;
+    private long usoMaximoMs;
+    // Préstamos que superaron el umbral de detección de fugas
+    private long usosProlongados;
+    private long timeouts;
+    private long conexionesCreadas;
+}
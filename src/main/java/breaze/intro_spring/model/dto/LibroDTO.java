@@ -0,0 +1,21 @@
+package breaze.intro_spring.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LibroDTO {
+    private Long id;
+    private String titulo;
+    private Integer anioPublicacion;
+    //autor del libro
+    private Long autorId;
+    private String autorNombre;
+    //detalle libro
+    private String isbn;
+    private Integer numPaginas;
+    private String idioma;
+}
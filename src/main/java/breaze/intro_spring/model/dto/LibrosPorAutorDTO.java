@@ -0,0 +1,14 @@
+package breaze.intro_spring.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LibrosPorAutorDTO {
+    private Long autorId;
+    private String nombre;
+    private Long libros;
+}
@@ -0,0 +1,16 @@
+package breaze.intro_spring.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PaginaDTO<T> {
+    private List<T> contenido;
+    // Cursor para pedir la siguiente página; null si no hay más resultados
+    private Long siguienteCursor;
+}
@@ -0,0 +1,18 @@
+package breaze.intro_spring.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResultadoBusquedaDTO<T> {
+    // Resultados de la página ordenados por relevancia
+    private List<T> contenido;
+    private long total;
+    private int pagina;
+    private int tamanio;
+}
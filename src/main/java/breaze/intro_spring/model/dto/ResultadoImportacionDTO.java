@@ -0,0 +1,15 @@
+package breaze.intro_spring.model.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ResultadoImportacionDTO {
+    private long procesados;
+    private long importados;
+    private long fallidos;
+    // Solo se guardan las filas con error, hasta un máximo, para no crecer con el tamaño de la entrada
+    private List<ErrorImportacionDTO> errores = new ArrayList<>();
+}
@@ -0,0 +1,15 @@
+package breaze.intro_spring.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SugerenciaDTO {
+    // AUTOR o LIBRO
+    private String tipo;
+    private Long id;
+    private String texto;
+}
@@ -1,15 +1,22 @@
 package breaze.intro_spring.model.entidades;
 
+import breaze.intro_spring.config.CacheConfig;
+import breaze.intro_spring.indices.IndicesReferenciaListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Set;
 
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.REGION_AUTOR)
+@EntityListeners(IndicesReferenciaListener.class)
 @Table(name = "autor")
 @AllArgsConstructor
 @NoArgsConstructor
@@ -1,13 +1,22 @@
 package breaze.intro_spring.model.entidades;
 
+import breaze.intro_spring.config.CacheConfig;
+import breaze.intro_spring.indices.IndicesReferenciaListener;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Set;
 
 @Data
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.REGION_CATEGORIA)
+@EntityListeners(IndicesReferenciaListener.class)
 @Table(name = "categoria")
 public class Categoria {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -19,5 +28,7 @@ public class Categoria {
 
     // One-to-many to the join entity
     @OneToMany(mappedBy = "categoria")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Set<LibroCategoria> libroCategorias = new HashSet<>();
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package breaze.intro_spring.model.entidades;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Fila del registro de auditoría de cambios del catálogo. La tabla es de solo inserción:
+ * RegistroAuditoria la escribe en lotes con JDBC y nunca actualiza ni borra filas.
+ */
+@Data
+@Entity
+@Table(name = "evento_auditoria", indexes = {
+        @Index(name = "idx_evento_auditoria_fecha", columnList = "fecha"),
+        @Index(name = "idx_evento_auditoria_entidad", columnList = "entidad, entidad_id")
+})
+public class EventoAuditoria {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    // AUTOR, LIBRO o LIBRO_CATEGORIA
+    @Column(name = "entidad", nullable = false, length = 20)
+    private String entidad;
+
+    // CREAR, ACTUALIZAR, ACTUALIZACION_PARCIAL o ELIMINAR
+    @Column(name = "operacion", nullable = false, length = 25)
+    private String operacion;
+
+    @Column(name = "entidad_id")
+    private Long entidadId;
+
+    // Estado resultante en JSON; null en las eliminaciones
+    @Lob
+    @Column(name = "datos")
+    private String datos;
+
+    // Usuario autenticado que hizo el cambio, si lo hay
+    @Column(name = "usuario", length = 100)
+    private String usuario;
+
+    // Momento del commit del cambio
+    @Column(name = "fecha", nullable = false)
+    private Instant fecha;
+}
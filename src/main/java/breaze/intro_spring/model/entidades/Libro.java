@@ -3,7 +3,9 @@ package breaze.intro_spring.model.entidades;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -25,11 +27,16 @@ public class Libro {
     @Column(name = "anio_publicacion")
     private Integer anioPublicacion;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "autor_id")
     private Autor autor;
+    // Las asociaciones inversas no participan en equals/hashCode/toString para no recorrer el grafo
     @OneToMany(mappedBy = "libro")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Set<LibroCategoria> libroCategorias = new HashSet<>();
     @OneToOne(mappedBy = "libro")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private DetalleLibro detalle;
 }
@@ -1,9 +1,14 @@
 package breaze.intro_spring.model.entidades;
 
+import breaze.intro_spring.config.CacheConfig;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.REGION_ROL)
 @Table(name = "rol")
 @Data
 public class Rol {
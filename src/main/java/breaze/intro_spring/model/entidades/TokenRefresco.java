@@ -0,0 +1,37 @@
+package breaze.intro_spring.model.entidades;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@Entity
+@Table(name = "token_refresco", indexes = {
+        @Index(name = "idx_token_refresco_familia", columnList = "familia"),
+        @Index(name = "idx_token_refresco_expira_en", columnList = "expira_en")
+})
+public class TokenRefresco {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    // Hash SHA-256 del token; el token en claro nunca se almacena
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    // Identifica la cadena de rotaciones que parte de un mismo login
+    @Column(name = "familia", nullable = false, length = 36)
+    private String familia;
+
+    @Column(name = "expira_en", nullable = false)
+    private Instant expiraEn;
+
+    // Un token usado (rotado) o de una familia revocada ya no puede volver a usarse
+    @Column(name = "usado", nullable = false)
+    private boolean usado;
+}
@@ -0,0 +1,20 @@
+package breaze.intro_spring.model.entidades;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@Entity
+@Table(name = "token_revocado", indexes = @Index(name = "idx_token_revocado_expira_en", columnList = "expira_en"))
+public class TokenRevocado {
+    // Claim jti del access token revocado
+    @Id
+    @Column(name = "jti", length = 36)
+    private String jti;
+
+    // Expiración original del token; pasada esta fecha la entrada ya no es necesaria
+    @Column(name = "expira_en", nullable = false)
+    private Instant expiraEn;
+}
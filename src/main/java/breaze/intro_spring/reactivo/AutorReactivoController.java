@@ -0,0 +1,53 @@
+package breaze.intro_spring.reactivo;
+
+import breaze.intro_spring.model.dto.AutorDTO;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Versión reactiva de las consultas de AutorController.
+ * Mantiene las rutas y las restricciones de rol del servicio principal.
+ */
+@RestController
+@Profile("reactivo")
+@RequestMapping("/autores")
+public class AutorReactivoController {
+
+    private final AutorReactivoRepository autorRepository;
+
+    public AutorReactivoController(AutorReactivoRepository autorRepository) {
+        this.autorRepository = autorRepository;
+    }
+
+    /**
+     * Obtiene la lista de todos los autores registrados, como arreglo JSON o como NDJSON.
+     * Solo usuarios con el rol USER pueden acceder.
+     * @return flujo de autores en orden de ID
+     */
+    @PreAuthorize("hasAnyRole('USER')")
+    @GetMapping(value = "/listar", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<AutorDTO> getAllAutores() {
+        return autorRepository.buscarTodos();
+    }
+
+    /**
+     * Busca un autor por su ID.
+     * Solo usuarios con el rol USER pueden acceder.
+     * @param id identificador del autor
+     * @return el autor encontrado o 404 si no existe
+     */
+    @PreAuthorize("hasAnyRole('USER')")
+    @GetMapping("/buscar/{id}")
+    public Mono<ResponseEntity<AutorDTO>> getAutorById(@PathVariable Long id) {
+        return autorRepository.buscarPorId(id).map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,43 @@
+package breaze.intro_spring.reactivo;
+
+import breaze.intro_spring.model.dto.AutorDTO;
+import io.r2dbc.spi.Readable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Consultas reactivas de autores sobre R2DBC, equivalentes a las de AutorRepository.
+ */
+@Repository
+@Profile("reactivo")
+public class AutorReactivoRepository {
+
+    private static final String SELECT_AUTOR = "select a.id, a.nombre, a.nacionalidad from autor a ";
+
+    private final DatabaseClient client;
+
+    public AutorReactivoRepository(DatabaseClient client) {
+        this.client = client;
+    }
+
+    public Flux<AutorDTO> buscarTodos() {
+        return client.sql(SELECT_AUTOR + "order by a.id")
+                .map(AutorReactivoRepository::mapear)
+                .all();
+    }
+
+    public Mono<AutorDTO> buscarPorId(long id) {
+        return client.sql(SELECT_AUTOR + "where a.id = :id")
+                .bind("id", id)
+                .map(AutorReactivoRepository::mapear)
+                .one();
+    }
+
+    private static AutorDTO mapear(Readable fila) {
+        return new AutorDTO(fila.get("id", Long.class), fila.get("nombre", String.class),
+                fila.get("nacionalidad", String.class));
+    }
+}
@@ -0,0 +1,53 @@
+package breaze.intro_spring.reactivo;
+
+import breaze.intro_spring.auth.JwtService;
+import breaze.intro_spring.auth.JwtTokenCache;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Equivalente reactivo de JwtAuthFilter.
+ * Valida el token de la cabecera Authorization con JwtService (a través de la caché de tokens verificados)
+ * y, si es válido y no está revocado, publica la autenticación en el contexto de Reactor.
+ * La verificación es solo CPU (HMAC), así que se hace en el hilo del event loop sin bloquearlo.
+ * No es un @Component para que solo se registre dentro de la cadena de Spring Security.
+ */
+public class JwtAuthWebFilter implements WebFilter {
+
+    private final JwtService jwtService;
+    private final JwtTokenCache tokenCache;
+    private final RevocacionReactiva revocacion;
+
+    public JwtAuthWebFilter(JwtService jwtService, JwtTokenCache tokenCache, RevocacionReactiva revocacion) {
+        this.jwtService = jwtService;
+        this.tokenCache = tokenCache;
+        this.revocacion = revocacion;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String header = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith("Bearer ")) {
+            return chain.filter(exchange);
+        }
+
+        UsernamePasswordAuthenticationToken auth;
+        try {
+            JwtTokenCache.Entrada entrada = tokenCache.resolver(header.substring(7), jwtService::verificar);
+            if (revocacion.estaRevocado(entrada.jti())) {
+                // Un token revocado se trata igual que uno inválido
+                return chain.filter(exchange);
+            }
+            auth = new UsernamePasswordAuthenticationToken(entrada.username(), "N/A", entrada.authorities());
+        } catch (Exception e) {
+            // Token inválido: la petición continúa sin autenticación
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange).contextWrite(ReactiveSecurityContextHolder.withAuthentication(auth));
+    }
+}
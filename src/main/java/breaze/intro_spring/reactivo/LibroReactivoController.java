@@ -0,0 +1,68 @@
+package breaze.intro_spring.reactivo;
+
+import breaze.intro_spring.model.dto.LibroDTO;
+import breaze.intro_spring.model.dto.PaginaDTO;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Versión reactiva de la consulta de libros de LibroController.
+ * Misma ruta, mismos parámetros y mismo formato de respuesta que el endpoint del servicio principal.
+ */
+@RestController
+@Profile("reactivo")
+@RequestMapping("/libro")
+public class LibroReactivoController {
+    /**
+     * Tamaño máximo de página permitido en la consulta paginada.
+     */
+    private static final int TAMANIO_MAXIMO = 500;
+    /**
+     * Libros leídos por consulta en el modo NDJSON.
+     */
+    private static final int TAMANIO_BLOQUE = 500;
+
+    private final LibroReactivoRepository libroRepository;
+
+    public LibroReactivoController(LibroReactivoRepository libroRepository) {
+        this.libroRepository = libroRepository;
+    }
+
+    /**
+     * Consulta los libros registrados de forma paginada por cursor.
+     * @param cursor valor de siguienteCursor de la página anterior; omitir para la primera página
+     * @param tamanio número de libros por página (máximo 500)
+     * @return página de libros
+     */
+    @GetMapping(value = "/consultar", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<PaginaDTO<LibroDTO>> consultarTodos(@RequestParam(required = false) Long cursor,
+                                                   @RequestParam(defaultValue = "50") int tamanio) {
+        int tamanioPagina = Math.max(1, Math.min(tamanio, TAMANIO_MAXIMO));
+        // Se pide un elemento extra para saber si existe una página siguiente
+        return libroRepository.buscarPagina(cursor == null ? 0L : cursor, tamanioPagina + 1).collectList()
+                .map(libros -> {
+                    if (libros.size() <= tamanioPagina) {
+                        return new PaginaDTO<>(libros, null);
+                    }
+                    var pagina = libros.subList(0, tamanioPagina);
+                    return new PaginaDTO<>(pagina, pagina.get(tamanioPagina - 1).getId());
+                });
+    }
+
+    /**
+     * Consulta todos los libros como NDJSON (un libro por línea).
+     * La escritura respeta la contrapresión: solo se leen más libros cuando el cliente consumió los anteriores.
+     * Se activa con la cabecera Accept: application/x-ndjson.
+     * @return flujo de libros en orden de ID
+     */
+    @GetMapping(value = "/consultar", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<LibroDTO> consultarTodosStream() {
+        return libroRepository.recorrerTodos(TAMANIO_BLOQUE);
+    }
+}
@@ -0,0 +1,65 @@
+package breaze.intro_spring.reactivo;
+
+import breaze.intro_spring.model.dto.LibroDTO;
+import io.r2dbc.spi.Readable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Consultas reactivas de libros sobre R2DBC, equivalentes a las de LibroRepository.
+ * Devuelve las mismas proyecciones LibroDTO (libro, autor y detalle en una sola consulta).
+ */
+@Repository
+@Profile("reactivo")
+public class LibroReactivoRepository {
+
+    private static final String SELECT_LIBRO = "select l.id, l.titulo, l.anio_publicacion, a.id as autor_id, " +
+            "a.nombre as autor_nombre, d.isbn, d.num_paginas, d.idioma from libro l " +
+            "left join autor a on a.id = l.autor_id left join detalle_libro d on d.libro_id = l.id ";
+
+    private final DatabaseClient client;
+
+    public LibroReactivoRepository(DatabaseClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Libros con ID mayor que el cursor, en orden de ID.
+     * @param cursor último ID de la página anterior (0 para la primera)
+     * @param limite número máximo de filas
+     */
+    public Flux<LibroDTO> buscarPagina(long cursor, int limite) {
+        return client.sql(SELECT_LIBRO + "where l.id > :cursor order by l.id limit :limite")
+                .bind("cursor", cursor)
+                .bind("limite", limite)
+                .map(LibroReactivoRepository::mapear)
+                .all();
+    }
+
+    /**
+     * Recorre todos los libros en orden de ID leyendo bloques por cursor.
+     * Cada bloque se consulta solo cuando el cliente consumió el anterior, por lo que un cliente lento
+     * retiene como mucho un bloque en memoria y ninguna conexión mientras no pide más datos.
+     * @param tamanioBloque número de libros por consulta
+     */
+    public Flux<LibroDTO> recorrerTodos(int tamanioBloque) {
+        return buscarPagina(0L, tamanioBloque).collectList()
+                .expand(bloque -> bloque.size() < tamanioBloque
+                        ? Mono.empty()
+                        : buscarPagina(bloque.get(bloque.size() - 1).getId(), tamanioBloque).collectList())
+                .concatMapIterable(Function.<List<LibroDTO>>identity(), 1);
+    }
+
+    private static LibroDTO mapear(Readable fila) {
+        return new LibroDTO(fila.get("id", Long.class), fila.get("titulo", String.class),
+                fila.get("anio_publicacion", Integer.class), fila.get("autor_id", Long.class),
+                fila.get("autor_nombre", String.class), fila.get("isbn", String.class),
+                fila.get("num_paginas", Integer.class), fila.get("idioma", String.class));
+    }
+}
@@ -0,0 +1,54 @@
+package breaze.intro_spring.reactivo;
+
+import breaze.intro_spring.auth.JwtService;
+import breaze.intro_spring.auth.JwtTokenCache;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveUserDetailsServiceAutoConfiguration;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Aplicación reactiva de solo lectura para el catálogo (WebFlux + R2DBC).
+ * Atiende /libro/consultar, /autores/listar y /autores/buscar/{id} con un número fijo y pequeño de hilos
+ * de event loop, de modo que muchos clientes lentos no retienen un hilo ni una conexión JDBC cada uno.
+ * Se ejecuta como un proceso aparte del servicio principal, compartiendo base de datos, clave JWT y
+ * tabla de revocaciones; solo escanea el paquete reactivo y reutiliza JwtService y JwtTokenCache.
+ * <pre>
+ * java -cp app.jar -Dloader.main=breaze.intro_spring.reactivo.ReactivoApplication \
+ *     org.springframework.boot.loader.launch.PropertiesLauncher
+ * </pre>
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("reactivo")
+@EnableAutoConfiguration(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+        JpaRepositoriesAutoConfiguration.class, ReactiveUserDetailsServiceAutoConfiguration.class})
+@ComponentScan
+@Import({JwtService.class, JwtTokenCache.class})
+@EnableScheduling
+public class ReactivoApplication {
+
+    /**
+     * Fuerza Reactor Netty como servidor: con Tomcat también en el classpath Spring Boot lo elegiría por defecto.
+     */
+    @Bean
+    NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    public static void main(String[] args) {
+        SpringApplication app = new SpringApplication(ReactivoApplication.class);
+        app.setWebApplicationType(WebApplicationType.REACTIVE);
+        app.setAdditionalProfiles("reactivo");
+        app.run(args);
+    }
+}
@@ -0,0 +1,62 @@
+package breaze.intro_spring.reactivo;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Réplica de solo lectura de las revocaciones de RevocationService para la aplicación reactiva.
+ * Recarga periódicamente la tabla token_revocado por R2DBC en un mapa en memoria (jti → expiración),
+ * de modo que la comprobación en cada petición no toca la base de datos.
+ */
+@Component
+@Profile("reactivo")
+public class RevocacionReactiva {
+
+    private final DatabaseClient client;
+    /**
+     * Tokens revocados no expirados: jti → expiración en milisegundos.
+     */
+    private final Map<String, Long> revocados = new ConcurrentHashMap<>();
+
+    public RevocacionReactiva(DatabaseClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Indica si el token con el jti dado fue revocado.
+     * @param jti identificador del token; null si el token no lo tiene
+     * @return true si está revocado
+     */
+    public boolean estaRevocado(String jti) {
+        return jti != null && revocados.containsKey(jti);
+    }
+
+    /**
+     * Carga las revocaciones vigentes al arrancar y luego de forma periódica.
+     * Hibernate guarda expira_en como DATETIME en la zona horaria de la JVM, por eso se lee como LocalDateTime.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${jwt.revocation-reload-ms:30000}", fixedDelayString = "${jwt.revocation-reload-ms:30000}")
+    public void recargar() {
+        ZoneId zona = ZoneId.systemDefault();
+        client.sql("select jti, expira_en from token_revocado where expira_en > :ahora")
+                .bind("ahora", LocalDateTime.now(zona))
+                .map(fila -> Map.entry(fila.get("jti", String.class),
+                        fila.get("expira_en", LocalDateTime.class).atZone(zona).toInstant().toEpochMilli()))
+                .all()
+                .doOnNext(revocado -> revocados.put(revocado.getKey(), revocado.getValue()))
+                .then()
+                .block();
+        long ahora = System.currentTimeMillis();
+        revocados.values().removeIf(expiraEn -> expiraEn <= ahora);
+    }
+}
@@ -0,0 +1,66 @@
+package breaze.intro_spring.reactivo;
+
+import breaze.intro_spring.auth.JwtService;
+import breaze.intro_spring.auth.JwtTokenCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsConfigurationSource;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+
+import java.util.List;
+
+/**
+ * Seguridad de la aplicación reactiva: mismas reglas que SecurityConfig para los endpoints de lectura.
+ * Sin sesiones ni login propio; los tokens se emiten en el servicio principal y aquí solo se validan.
+ * Los permisos por rol se asignan con @PreAuthorize en los controladores.
+ */
+@Configuration
+@Profile("reactivo")
+@EnableWebFluxSecurity
+@EnableReactiveMethodSecurity
+public class SeguridadReactivaConfig {
+
+    @Bean
+    SecurityWebFilterChain filterChain(ServerHttpSecurity http, JwtService jwtService, JwtTokenCache tokenCache,
+                                       RevocacionReactiva revocacion) {
+        return http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .logout(ServerHttpSecurity.LogoutSpec::disable)
+                .cors(cors -> cors.configurationSource(corsConfigurationSource()))
+                // Stateless: el contexto de seguridad se construye en cada petición a partir del token
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .authorizeExchange(auth -> auth.anyExchange().authenticated())
+                // Mismo código de estado que el servicio principal para peticiones sin autenticar
+                .exceptionHandling(ex -> ex.authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.FORBIDDEN)))
+                .addFilterAt(new JwtAuthWebFilter(jwtService, tokenCache, revocacion), SecurityWebFiltersOrder.AUTHENTICATION)
+                .build();
+    }
+
+    /**
+     * Misma configuración CORS que SecurityConfig.
+     */
+    @Bean
+    CorsConfigurationSource corsConfigurationSource() {
+        CorsConfiguration cfg = new CorsConfiguration();
+        cfg.setAllowedOrigins(List.of("http://localhost:3000", "http://localhost:4200", "http://127.0.0.1:3000"));
+        cfg.setAllowedMethods(List.of("GET", "OPTIONS"));
+        cfg.setAllowedHeaders(List.of("Authorization", "Content-Type", "Accept"));
+        cfg.setAllowCredentials(true);
+        cfg.setMaxAge(3600L);
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/**", cfg);
+        return source;
+    }
+}
@@ -1,13 +1,55 @@
 package breaze.intro_spring.repositorios;
 
+import breaze.intro_spring.config.CacheConfig;
+import breaze.intro_spring.model.dto.AutorDTO;
+import breaze.intro_spring.model.dto.ConteoNacionalidadDTO;
+import breaze.intro_spring.model.dto.HuellaTablaDTO;
 import breaze.intro_spring.model.entidades.Autor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface AutorRepository extends JpaRepository<Autor, Long> {
     public List<Autor> findByNacionalidad(String nacionalidad);
-    public List<Autor> findByNombreContainingIgnoreCase(String text);
+
+    public long countByNacionalidad(String nacionalidad);
+
+    @Query("select new breaze.intro_spring.model.dto.ConteoNacionalidadDTO(a.nacionalidad, count(a)) from Autor a " +
+            "group by a.nacionalidad")
+    public List<ConteoNacionalidadDTO> contarPorNacionalidad();
+
+    // Proyecciones de solo lectura: seleccionan únicamente las columnas del DTO
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = CacheConfig.REGION_CONSULTAS_AUTOR)})
+    @Query("select new breaze.intro_spring.model.dto.AutorDTO(a.id, a.nombre, a.nacionalidad) from Autor a order by a.id")
+    public List<AutorDTO> buscarTodos();
+
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = CacheConfig.REGION_CONSULTAS_AUTOR)})
+    @Query("select new breaze.intro_spring.model.dto.AutorDTO(a.id, a.nombre, a.nacionalidad) from Autor a where a.id = :id")
+    public Optional<AutorDTO> buscarPorId(@Param("id") Long id);
+
+    // Recupera los autores devueltos por el índice de búsqueda; el orden lo aplica el servicio
+    @Query("select new breaze.intro_spring.model.dto.AutorDTO(a.id, a.nombre, a.nacionalidad) from Autor a where a.id in :ids")
+    public List<AutorDTO> buscarPorIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select a.id from Autor a")
+    public List<Long> buscarIds();
+
+    // Confirma en la base de datos los IDs que no están en el índice en memoria
+    @Query("select a.id from Autor a where a.id in :ids")
+    public List<Long> buscarIdsExistentes(@Param("ids") Collection<Long> ids);
+
+    // Número de filas e ID máximo: detecta altas y bajas hechas por otras instancias (VersionCatalogo)
+    @Query("select new breaze.intro_spring.model.dto.HuellaTablaDTO(count(a), max(a.id)) from Autor a")
+    public HuellaTablaDTO calcularHuella();
 }
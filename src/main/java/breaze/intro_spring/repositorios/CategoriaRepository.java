@@ -1,7 +1,26 @@
 package breaze.intro_spring.repositorios;
 
+import breaze.intro_spring.config.CacheConfig;
 import breaze.intro_spring.model.entidades.Categoria;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface CategoriaRepository extends JpaRepository<Categoria, Long> {
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = CacheConfig.REGION_CONSULTAS_REFERENCIA)})
+    long countByIdIn(Collection<Long> ids);
+
+    @Query("select c.id from Categoria c")
+    List<Long> buscarIds();
+
+    // Confirma en la base de datos los IDs que no están en el índice en memoria
+    @Query("select c.id from Categoria c where c.id in :ids")
+    List<Long> buscarIdsExistentes(@Param("ids") Collection<Long> ids);
 }
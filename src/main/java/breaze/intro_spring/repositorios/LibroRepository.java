@@ -1,14 +1,59 @@
 package breaze.intro_spring.repositorios;
 
+import breaze.intro_spring.model.dto.ConteoAnioDTO;
+import breaze.intro_spring.model.dto.HuellaTablaDTO;
+import breaze.intro_spring.model.dto.LibroDTO;
+import breaze.intro_spring.model.dto.LibrosPorAutorDTO;
 import breaze.intro_spring.model.entidades.Libro;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface LibroRepository extends JpaRepository<Libro, Long> {
-    List<Libro> findByTituloContaining(String titulo);
     List<Libro> findByAnioPublicacion(Integer anioPublicacion);
     List<Libro> findByAutorId(Long autorId);
-}
\ No newline at end of file
+
+    // Incluye los autores sin libros para que aparezcan con total 0
+    @Query("select new breaze.intro_spring.model.dto.LibrosPorAutorDTO(a.id, a.nombre, count(l)) " +
+            "from Autor a left join Libro l on l.autor = a group by a.id, a.nombre")
+    List<LibrosPorAutorDTO> contarPorAutor();
+
+    @Query("select new breaze.intro_spring.model.dto.ConteoAnioDTO(l.anioPublicacion, count(l)) from Libro l " +
+            "group by l.anioPublicacion")
+    List<ConteoAnioDTO> contarPorAnio();
+
+    @Query("select new breaze.intro_spring.model.dto.LibroDTO(l.id, l.titulo, l.anioPublicacion, a.id, a.nombre, " +
+            "d.isbn, d.numPaginas, d.idioma) from Libro l left join l.autor a left join l.detalle d where l.id = :id")
+    Optional<LibroDTO> buscarPorId(@Param("id") Long id);
+
+    // Recupera los libros devueltos por el índice de búsqueda; el orden lo aplica el servicio
+    @Query("select new breaze.intro_spring.model.dto.LibroDTO(l.id, l.titulo, l.anioPublicacion, a.id, a.nombre, " +
+            "d.isbn, d.numPaginas, d.idioma) from Libro l left join l.autor a left join l.detalle d where l.id in :ids")
+    List<LibroDTO> buscarPorIds(@Param("ids") Collection<Long> ids);
+
+    // Paginación por cursor (keyset): usa el índice de la clave primaria en lugar de OFFSET
+    @Query("select new breaze.intro_spring.model.dto.LibroDTO(l.id, l.titulo, l.anioPublicacion, a.id, a.nombre, " +
+            "d.isbn, d.numPaginas, d.idioma) from Libro l left join l.autor a left join l.detalle d where l.id > :cursor order by l.id")
+    List<LibroDTO> buscarPagina(@Param("cursor") Long cursor, Limit limit);
+
+    // Recorre todo el catálogo con un cursor JDBC; debe consumirse dentro de una transacción
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new breaze.intro_spring.model.dto.LibroDTO(l.id, l.titulo, l.anioPublicacion, a.id, a.nombre, " +
+            "d.isbn, d.numPaginas, d.idioma) from Libro l left join l.autor a left join l.detalle d order by l.id")
+    Stream<LibroDTO> recorrerTodos();
+
+    // Número de filas e ID máximo: detecta altas y bajas hechas por otras instancias (VersionCatalogo)
+    @Query("select new breaze.intro_spring.model.dto.HuellaTablaDTO(count(l), max(l.id)) from Libro l")
+    HuellaTablaDTO calcularHuella();
+}
@@ -1,10 +1,16 @@
 package breaze.intro_spring.repositorios;
 
+import breaze.intro_spring.config.CacheConfig;
 import breaze.intro_spring.model.entidades.Rol;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.Optional;
 
 public interface RolRepository extends JpaRepository<Rol, Long> {
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = CacheConfig.REGION_CONSULTAS_REFERENCIA)})
     Optional<Rol> findByNombre(String nombre);
 }
@@ -0,0 +1,26 @@
+package breaze.intro_spring.repositorios;
+
+import breaze.intro_spring.model.entidades.TokenRefresco;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface TokenRefrescoRepository extends JpaRepository<TokenRefresco, Long> {
+    Optional<TokenRefresco> findByTokenHash(String tokenHash);
+
+    @Modifying
+    @Query("update TokenRefresco t set t.usado = true where t.tokenHash = :tokenHash and t.usado = false")
+    int marcarUsado(@Param("tokenHash") String tokenHash);
+
+    @Modifying
+    @Query("update TokenRefresco t set t.usado = true where t.familia = :familia")
+    int revocarFamilia(@Param("familia") String familia);
+
+    @Modifying
+    @Query("delete from TokenRefresco t where t.expiraEn < :instante")
+    int eliminarExpirados(@Param("instante") Instant instante);
+}
@@ -0,0 +1,18 @@
+package breaze.intro_spring.repositorios;
+
+import breaze.intro_spring.model.entidades.TokenRevocado;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface TokenRevocadoRepository extends JpaRepository<TokenRevocado, String> {
+    List<TokenRevocado> findByExpiraEnAfter(Instant instante);
+
+    @Modifying
+    @Query("delete from TokenRevocado t where t.expiraEn < :instante")
+    int eliminarExpirados(@Param("instante") Instant instante);
+}
@@ -0,0 +1,201 @@
+package breaze.intro_spring.respuestas;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caché de respuestas ya serializadas de los endpoints de lectura, indexada por recurso, parámetros y formato
+ * (JSON, Smile o CBOR según la cabecera Accept).
+ * Guarda los bytes codificados y, por encima de un umbral, también su versión comprimida con gzip, de modo que
+ * un acierto no consulta el repositorio, no serializa y no comprime: el arreglo se entrega tal cual a
+ * ByteArrayHttpMessageConverter, que lo escribe directamente en el OutputStream del servlet con su Content-Length.
+ * La memoria se acota por el peso en bytes de las entradas (Caffeine, política W-TinyLFU).
+ * Cada entrada se valida contra el ETag actual de VersionCatalogo: tras un cambio del catálogo la siguiente lectura
+ * la reemplaza, y las que ya no se piden las desaloja el límite de peso. Así una importación masiva no recorre
+ * la caché por cada libro que publica.
+ */
+@Component
+public class CacheRespuestas {
+
+    /**
+     * Recursos cuyas respuestas se guardan en caché.
+     */
+    public enum Recurso {
+        AUTORES, AUTOR, LIBROS
+    }
+
+    /**
+     * Clave de caché: recurso y parámetros de la petición normalizados.
+     * @param recurso endpoint de origen
+     * @param parametros parámetros que distinguen la respuesta, vacío si no hay
+     */
+    public record Clave(Recurso recurso, String parametros) {
+    }
+
+    /**
+     * Clave interna: cada formato de un mismo recurso se guarda por separado.
+     */
+    private record ClaveFormato(Clave clave, Formato formato) {
+    }
+
+    /**
+     * Respuesta serializada y ETag con el que se generó.
+     * @param etag ETag de la versión serializada, sin sufijos de formato ni de compresión
+     * @param cuerpo cuerpo codificado
+     * @param gzip cuerpo comprimido, o null si no supera el umbral o la compresión está desactivada
+     */
+    private record Entrada(String etag, byte[] cuerpo, byte[] gzip) {
+        int peso() {
+            // Se añade una estimación fija por la clave, la entrada y los encabezados de los arreglos
+            return 96 + cuerpo.length + (gzip == null ? 0 : gzip.length);
+        }
+    }
+
+    private final Cache<ClaveFormato, Entrada> entradas;
+    private final MapeadoresFormato mapeadores;
+    /**
+     * Tamaño mínimo del cuerpo para guardar también la versión gzip. Con un valor negativo no se comprime.
+     */
+    private final int umbralGzip;
+
+    /**
+     * Constructor que crea la caché con el peso máximo configurado y registra sus métricas si hay registro de Micrometer.
+     * @param mapeadores mappers de Jackson de cada formato
+     * @param maxBytes peso máximo de la caché en bytes
+     * @param umbralGzip tamaño mínimo en bytes para comprimir, o negativo para desactivar gzip
+     * @param registry registro de métricas, si existe
+     */
+    public CacheRespuestas(MapeadoresFormato mapeadores,
+                           @Value("${respuestas.cache.max-bytes:33554432}") long maxBytes,
+                           @Value("${respuestas.cache.gzip-umbral:1024}") int umbralGzip,
+                           ObjectProvider<MeterRegistry> registry) {
+        this.mapeadores = mapeadores;
+        this.umbralGzip = umbralGzip;
+        this.entradas = Caffeine.newBuilder()
+                .maximumWeight(Math.max(0, maxBytes))
+                .weigher((ClaveFormato clave, Entrada entrada) -> entrada.peso())
+                .recordStats()
+                .build();
+        registry.ifAvailable(r -> CaffeineCacheMetrics.monitor(r, entradas, "respuestas"));
+    }
+
+    /**
+     * Responde una petición GET desde la caché.
+     * Si el If-None-Match coincide con el ETag actual responde 304 sin cargar nada; si no, sirve los bytes
+     * en caché cuando se generaron con ese ETag y solo en caso contrario carga, serializa y almacena el valor.
+     * Cada formato y la versión comprimida con gzip tienen su propio ETag (sufijos -smile, -cbor y -gz),
+     * ya que un ETag fuerte identifica una única representación.
+     * @param request petición, para evaluar If-None-Match, Accept y Accept-Encoding
+     * @param clave recurso y parámetros
+     * @param etag ETag actual del recurso según VersionCatalogo
+     * @param cargar función que obtiene el valor a serializar, vacío si el recurso no existe
+     * @return respuesta 200 con el cuerpo, 404 si el recurso no existe, o null si ya se respondió 304
+     */
+    public ResponseEntity<byte[]> responder(WebRequest request, Clave clave, String etag,
+                                            Supplier<? extends Optional<?>> cargar) {
+        Formato formato = Formato.negociar(request.getHeader(HttpHeaders.ACCEPT));
+        boolean gzip = umbralGzip >= 0 && aceptaGzip(request);
+        String etagRespuesta = etag + formato.getSufijoEtag() + (gzip ? "-gz" : "");
+        if (request.checkNotModified(etagRespuesta)) {
+            return null;
+        }
+        ClaveFormato claveFormato = new ClaveFormato(clave, formato);
+        Entrada entrada = entradas.getIfPresent(claveFormato);
+        if (entrada == null || !entrada.etag().equals(etag)) {
+            Optional<?> valor = cargar.get();
+            if (valor.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            entrada = crearEntrada(etag, formato, valor.get());
+            entradas.put(claveFormato, entrada);
+        }
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .eTag(etagRespuesta)
+                .contentType(formato.getTipo())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip && entrada.gzip() != null) {
+            return respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(entrada.gzip());
+        }
+        return respuesta.body(entrada.cuerpo());
+    }
+
+    private Entrada crearEntrada(String etag, Formato formato, Object valor) {
+        byte[] cuerpo;
+        try {
+            cuerpo = mapeadores.mapper(formato).writeValueAsBytes(valor);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Entrada(etag, cuerpo, umbralGzip >= 0 && cuerpo.length >= umbralGzip ? comprimir(cuerpo) : null);
+    }
+
+    private static byte[] comprimir(byte[] datos) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(datos.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida, 8192)) {
+            gzip.write(datos);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.toByteArray();
+    }
+
+    /**
+     * Indica si Accept-Encoding admite gzip, respetando los valores q: "gzip;q=0" lo rechaza
+     * y "*" lo admite si gzip no aparece de forma explícita.
+     */
+    private static boolean aceptaGzip(WebRequest request) {
+        return aceptaGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    private static boolean aceptaGzip(String aceptadas) {
+        if (aceptadas == null) {
+            return false;
+        }
+        double gzip = -1;
+        double comodin = -1;
+        for (String elemento : aceptadas.split(",")) {
+            String[] partes = elemento.split(";");
+            String codificacion = partes[0].trim();
+            double calidad = calidad(partes);
+            if (codificacion.equalsIgnoreCase("gzip") || codificacion.equalsIgnoreCase("x-gzip")) {
+                gzip = Math.max(gzip, calidad);
+            } else if (codificacion.equals("*")) {
+                comodin = Math.max(comodin, calidad);
+            }
+        }
+        return gzip >= 0 ? gzip > 0 : comodin > 0;
+    }
+
+    /**
+     * Valor q de un elemento de Accept-Encoding; 1 si no lo indica y 0 si no es un número válido.
+     */
+    private static double calidad(String[] partes) {
+        for (int i = 1; i < partes.length; i++) {
+            String parametro = partes[i].trim();
+            if (parametro.length() > 2 && (parametro.charAt(0) == 'q' || parametro.charAt(0) == 'Q') && parametro.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(parametro.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,93 @@
+package breaze.intro_spring.respuestas;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.List;
+
+/**
+ * Codificaciones admitidas por los endpoints del catálogo: JSON y los formatos binarios de Jackson Smile y CBOR.
+ * Los formatos binarios evitan el coste de escapar y parsear texto y reducen el tamaño de los números y
+ * de los nombres de campo repetidos (Smile los referencia tras su primera aparición).
+ */
+public enum Formato {
+    JSON(MediaType.APPLICATION_JSON, ""),
+    SMILE(MediaType.parseMediaType(Formato.APPLICATION_SMILE_VALUE), "-smile"),
+    CBOR(MediaType.APPLICATION_CBOR, "-cbor");
+
+    /**
+     * Tipo de contenido de Smile, el mismo que usa MappingJackson2SmileHttpMessageConverter.
+     */
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    private final MediaType tipo;
+    /**
+     * Sufijo del ETag, ya que un ETag fuerte identifica una única representación.
+     */
+    private final String sufijoEtag;
+
+    Formato(MediaType tipo, String sufijoEtag) {
+        this.tipo = tipo;
+        this.sufijoEtag = sufijoEtag;
+    }
+
+    public MediaType getTipo() {
+        return tipo;
+    }
+
+    public String getSufijoEtag() {
+        return sufijoEtag;
+    }
+
+    /**
+     * Elige el formato de respuesta según la cabecera Accept, respetando su orden de preferencia.
+     * Sin cabecera, con comodines o con tipos no admitidos se responde JSON.
+     * @param accept valor de la cabecera Accept, puede ser null
+     * @return formato de la respuesta
+     */
+    public static Formato negociar(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> aceptados;
+        try {
+            aceptados = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        MimeTypeUtils.sortBySpecificity(aceptados);
+        for (MediaType aceptado : aceptados) {
+            if (aceptado.isWildcardType() || aceptado.isWildcardSubtype()) {
+                return JSON;
+            }
+            for (Formato formato : values()) {
+                if (formato.tipo.isCompatibleWith(aceptado)) {
+                    return formato;
+                }
+            }
+        }
+        return JSON;
+    }
+
+    /**
+     * Formato de un cuerpo de petición según su Content-Type.
+     * @param contentType valor de la cabecera Content-Type, puede ser null
+     * @return formato del cuerpo; JSON si no es Smile ni CBOR
+     */
+    public static Formato deContentType(String contentType) {
+        if (contentType != null) {
+            try {
+                MediaType tipo = MediaType.parseMediaType(contentType);
+                for (Formato formato : values()) {
+                    if (formato != JSON && formato.tipo.includes(tipo)) {
+                        return formato;
+                    }
+                }
+            } catch (InvalidMediaTypeException e) {
+                return JSON;
+            }
+        }
+        return JSON;
+    }
+}
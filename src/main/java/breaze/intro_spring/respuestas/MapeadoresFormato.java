@@ -0,0 +1,36 @@
+package breaze.intro_spring.respuestas;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * ObjectMapper de Jackson para cada formato, todos con la misma configuración (módulos, fechas, propiedades nulas)
+ * que el mapper JSON de la aplicación, de modo que un mismo DTO se codifica igual en los tres formatos.
+ */
+public class MapeadoresFormato {
+
+    private final Map<Formato, ObjectMapper> mappers = new EnumMap<>(Formato.class);
+
+    /**
+     * @param objectMapper mapper JSON de la aplicación
+     * @param builder builder configurado por Spring Boot, usado para crear los mappers binarios
+     */
+    public MapeadoresFormato(ObjectMapper objectMapper, Jackson2ObjectMapperBuilder builder) {
+        mappers.put(Formato.JSON, objectMapper);
+        mappers.put(Formato.SMILE, builder.factory(new SmileFactory()).build());
+        mappers.put(Formato.CBOR, builder.factory(new CBORFactory()).build());
+    }
+
+    /**
+     * @param formato formato de la codificación
+     * @return mapper del formato
+     */
+    public ObjectMapper mapper(Formato formato) {
+        return mappers.get(formato);
+    }
+}
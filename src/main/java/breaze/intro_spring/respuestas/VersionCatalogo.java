@@ -0,0 +1,149 @@
+package breaze.intro_spring.respuestas;
+
+import breaze.intro_spring.config.CacheConfig;
+import breaze.intro_spring.eventos.CambioCatalogoEvent;
+import breaze.intro_spring.model.dto.HuellaTablaDTO;
+import breaze.intro_spring.model.entidades.Autor;
+import breaze.intro_spring.repositorios.AutorRepository;
+import breaze.intro_spring.repositorios.LibroRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contadores de versión del catálogo usados para calcular los ETag de los endpoints de lectura.
+ * Cada escritura confirmada de AutorService, LibroService o la importación masiva incrementa la versión
+ * de las colecciones afectadas y, en el caso de los autores, la versión del propio autor.
+ * Los ETag incluyen una época aleatoria por arranque para que no coincidan con los emitidos antes de un reinicio.
+ * Los eventos solo llegan a la instancia que hizo la escritura, así que con varias réplicas los ETag incluyen además
+ * una generación que se incrementa al sincronizar con la base de datos: cuando cambia el número de filas o el ID
+ * máximo de autor o libro, o cuando han pasado respuestas.version-ttl-ms desde el último incremento, lo que acota
+ * cuánto tarda en verse una modificación hecha por otra instancia.
+ */
+@Component
+public class VersionCatalogo {
+
+    /**
+     * Prefijo común de los ETag, distinto en cada arranque.
+     */
+    private final String epoca = Long.toString(System.currentTimeMillis(), 36);
+    /**
+     * Versión del listado de autores.
+     */
+    private final AtomicLong autores = new AtomicLong();
+    /**
+     * Versión de la consulta de libros. También cambia con los autores, porque cada libro incluye el nombre de su autor.
+     */
+    private final AtomicLong libros = new AtomicLong();
+    /**
+     * Versión de cada autor modificado desde el arranque; los no modificados tienen versión 0.
+     */
+    private final Map<Long, Long> versionesAutor = new ConcurrentHashMap<>();
+    /**
+     * Generación común a todos los ETag, incrementada por sincronizar().
+     */
+    private final AtomicLong generacion = new AtomicLong();
+
+    private final AutorRepository autorRepository;
+    private final LibroRepository libroRepository;
+    private final Cache cache;
+    /**
+     * Tiempo máximo entre dos incrementos de la generación, o 0 para incrementarla solo cuando cambie la huella.
+     */
+    private final long ttlMs;
+    private List<HuellaTablaDTO> huella;
+    private long ultimoIncremento = System.currentTimeMillis();
+
+    public VersionCatalogo(AutorRepository autorRepository, LibroRepository libroRepository,
+                           EntityManagerFactory entityManagerFactory,
+                           @Value("${respuestas.version-ttl-ms:300000}") long ttlMs) {
+        this.autorRepository = autorRepository;
+        this.libroRepository = libroRepository;
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * Incrementa las versiones afectadas por un cambio tras el commit, o de inmediato si se publicó fuera de una transacción.
+     * @param evento cambio publicado por los servicios
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarCatalogo(CambioCatalogoEvent evento) {
+        if (evento.entidad() == CambioCatalogoEvent.Entidad.LIBRO_CATEGORIA) {
+            // Las categorías no aparecen en las respuestas versionadas
+            return;
+        }
+        if (evento.entidad() == CambioCatalogoEvent.Entidad.AUTOR) {
+            long version = autores.incrementAndGet();
+            if (evento.id() != null) {
+                versionesAutor.put(evento.id(), version);
+            }
+        }
+        libros.incrementAndGet();
+    }
+
+    /**
+     * Compara el número de filas y el ID máximo de autor y libro con los de la sincronización anterior
+     * e incrementa la generación si difieren o si ha vencido el TTL. Las modificaciones que no cambian
+     * la huella (actualizaciones de otra instancia) se recogen como muy tarde al vencer el TTL.
+     * Antes de incrementarla desaloja los autores de la caché de segundo nivel, que tampoco ve esas escrituras,
+     * para que las respuestas generadas con la nueva generación se lean de la base de datos.
+     */
+    @Scheduled(initialDelayString = "${respuestas.sincronizacion-ms:30000}", fixedDelayString = "${respuestas.sincronizacion-ms:30000}")
+    public void sincronizar() {
+        List<HuellaTablaDTO> actual = List.of(autorRepository.calcularHuella(), libroRepository.calcularHuella());
+        long ahora = System.currentTimeMillis();
+        boolean cambio = huella != null && !huella.equals(actual);
+        if (cambio || ttlMs > 0 && ahora - ultimoIncremento >= ttlMs) {
+            cache.evictEntityData(Autor.class);
+            cache.evictQueryRegion(CacheConfig.REGION_CONSULTAS_AUTOR);
+            generacion.incrementAndGet();
+            ultimoIncremento = ahora;
+        }
+        huella = actual;
+    }
+
+    /**
+     * @return ETag del listado completo de autores
+     */
+    public String etagAutores() {
+        return prefijo() + "-autores-" + autores.get();
+    }
+
+    /**
+     * @param id identificador del autor
+     * @return ETag del detalle del autor
+     */
+    public String etagAutor(Long id) {
+        return prefijo() + "-autor-" + id + "-" + versionesAutor.getOrDefault(id, 0L);
+    }
+
+    /**
+     * @param cursor cursor de la página consultada, o null para la primera
+     * @param tamanio tamaño de página
+     * @return ETag de la página de libros
+     */
+    public String etagLibros(Long cursor, int tamanio) {
+        return prefijo() + "-libros-" + libros.get() + "-" + (cursor == null ? "" : cursor) + "-" + tamanio;
+    }
+
+    /**
+     * @return ETag del recorrido completo de libros en NDJSON
+     */
+    public String etagLibrosCompleto() {
+        return prefijo() + "-libros-" + libros.get() + "-ndjson";
+    }
+
+    private String prefijo() {
+        return epoca + "." + generacion.get();
+    }
+}
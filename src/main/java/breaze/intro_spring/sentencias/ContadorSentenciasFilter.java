@@ -0,0 +1,140 @@
+package breaze.intro_spring.sentencias;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cuenta las sentencias SQL de cada petición HTTP: todas las que pasan por el DataSource (DataSourceSentencias),
+ * tanto las de Hibernate como las de JdbcTemplate.
+ * - Añade la cabecera X-Sentencias-SQL con las sentencias ejecutadas hasta que se envían las cabeceras
+ *   (en respuestas grandes o en streaming, las posteriores no se reflejan en ella).
+ * - Registra la distribución biblioteca.sql.sentencias por endpoint.
+ * - Avisa en el log cuando se supera sentencias.max-por-peticion o una misma consulta SELECT se repite
+ *   más de sentencias.max-repeticiones veces (posible N+1).
+ * - Con sentencias.modo=rechazar la petición falla con 500 al superar un límite; es el modo para
+ *   las pruebas que fijan el presupuesto de consultas de cada endpoint.
+ * Las rutas de sentencias.excluir (por ejemplo la importación masiva) se cuentan pero no tienen límites.
+ * Las sentencias de las tareas asíncronas de la petición (PropagadorSentencias) también se cuentan; en ese caso
+ * la métrica y los avisos se registran al terminar el procesamiento asíncrono.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ContadorSentenciasFilter extends OncePerRequestFilter {
+
+    public static final String CABECERA = "X-Sentencias-SQL";
+
+    private static final Logger log = LoggerFactory.getLogger(ContadorSentenciasFilter.class);
+
+    private final MeterRegistry registry;
+    private final int maxPorPeticion;
+    private final int maxRepeticiones;
+    private final boolean rechazar;
+    private final List<String> excluir;
+
+    public ContadorSentenciasFilter(MeterRegistry registry,
+                                    @Value("${sentencias.max-por-peticion:50}") int maxPorPeticion,
+                                    @Value("${sentencias.max-repeticiones:10}") int maxRepeticiones,
+                                    @Value("${sentencias.modo:registrar}") String modo,
+                                    @Value("${sentencias.excluir:}") List<String> excluir) {
+        this.registry = registry;
+        this.maxPorPeticion = maxPorPeticion;
+        this.maxRepeticiones = maxRepeticiones;
+        this.rechazar = "rechazar".equalsIgnoreCase(modo);
+        this.excluir = excluir;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String ruta = request.getRequestURI().substring(request.getContextPath().length());
+        RegistroSentencias registro = excluir.stream().anyMatch(ruta::startsWith)
+                ? RegistroSentencias.iniciar(0, 0, false)
+                : RegistroSentencias.iniciar(maxPorPeticion, maxRepeticiones, rechazar);
+        OnCommittedResponseWrapper respuesta = new OnCommittedResponseWrapper(response) {
+            @Override
+            protected void onResponseCommitted() {
+                setHeader(CABECERA, Integer.toString(registro.getTotal()));
+            }
+        };
+        try {
+            filterChain.doFilter(request, respuesta);
+        } finally {
+            RegistroSentencias.terminar();
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new FinalizarAlTerminar(() -> finalizar(request, registro)));
+            } else {
+                if (!response.isCommitted()) {
+                    response.setHeader(CABECERA, Integer.toString(registro.getTotal()));
+                }
+                finalizar(request, registro);
+            }
+        }
+    }
+
+    /**
+     * Registra la métrica de la petición una sola vez cuando termina su procesamiento asíncrono.
+     */
+    private record FinalizarAlTerminar(Runnable finalizar, AtomicBoolean hecho) implements AsyncListener {
+        FinalizarAlTerminar(Runnable finalizar) {
+            this(finalizar, new AtomicBoolean());
+        }
+
+        private void ejecutar() {
+            if (hecho.compareAndSet(false, true)) {
+                finalizar.run();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            ejecutar();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            ejecutar();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            ejecutar();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    private void finalizar(HttpServletRequest request, RegistroSentencias registro) {
+        Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = patron == null ? "UNKNOWN" : patron.toString();
+        registry.summary("biblioteca.sql.sentencias", "uri", uri).record(registro.getTotal());
+        if (registro.excedeTotal()) {
+            log.warn("{} {} ejecutó {} sentencias SQL (máximo {})", request.getMethod(), uri, registro.getTotal(), maxPorPeticion);
+        }
+        if (registro.getConsultaRepetida() != null) {
+            registry.counter("biblioteca.sql.repeticiones", "uri", uri).increment();
+            log.warn("{} {} repitió más de {} veces la consulta (posible N+1): {}",
+                    request.getMethod(), uri, maxRepeticiones, registro.getConsultaRepetida());
+        }
+    }
+}
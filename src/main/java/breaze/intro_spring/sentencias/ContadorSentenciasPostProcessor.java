@@ -0,0 +1,31 @@
+package breaze.intro_spring.sentencias;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Envuelve el DataSource de la aplicación en un DataSourceSentencias para contar todas las sentencias JDBC.
+ * Actúa tras la inicialización del bean; las configuraciones que necesitan el HikariDataSource original
+ * (PoolConexionesConfig) se aplican antes de ella.
+ */
+@Component
+public class ContadorSentenciasPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<MeterRegistry> registry;
+
+    public ContadorSentenciasPostProcessor(ObjectProvider<MeterRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof DataSourceSentencias)) {
+            return new DataSourceSentencias(dataSource, registry);
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,142 @@
+package breaze.intro_spring.sentencias;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * DataSource que anota cada sentencia SQL en el RegistroSentencias de la petición en curso, sea cual sea el cliente
+ * que la envía: Hibernate, JdbcTemplate (inserción en lote de las categorías de un libro) u otro.
+ * Las sentencias preparadas se cuentan al prepararlas, así que un lote de batchUpdate cuenta una vez; las de un
+ * Statement simple, en cada execute o addBatch.
+ * Las que se ejecutan fuera de una petición (tareas programadas, escritor de auditoría) no pertenecen a ninguna
+ * y se suman al contador biblioteca.sql.sentencias.segundo-plano.
+ */
+class DataSourceSentencias extends DelegatingDataSource {
+
+    private final ObjectProvider<MeterRegistry> registry;
+    private volatile Counter segundoPlano;
+
+    DataSourceSentencias(DataSource dataSource, ObjectProvider<MeterRegistry> registry) {
+        super(dataSource);
+        this.registry = registry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return envolver(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return envolver(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection envolver(Connection conexion) {
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class}, new ManejadorConexion(conexion));
+    }
+
+    private void registrar(String sql) {
+        RegistroSentencias registro = RegistroSentencias.actual();
+        if (registro != null) {
+            registro.registrar(sql);
+            return;
+        }
+        Counter contador = segundoPlano;
+        if (contador == null) {
+            MeterRegistry meterRegistry = registry.getIfAvailable();
+            if (meterRegistry == null) {
+                return;
+            }
+            contador = Counter.builder("biblioteca.sql.sentencias.segundo-plano")
+                    .description("Sentencias SQL ejecutadas fuera de una petición HTTP")
+                    .register(meterRegistry);
+            segundoPlano = contador;
+        }
+        contador.increment();
+    }
+
+    private static Object invocar(Object destino, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(destino, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * Cuenta las sentencias preparadas y envuelve los Statement simples, que reciben el SQL al ejecutarse.
+     */
+    private final class ManejadorConexion implements InvocationHandler {
+        private final Connection conexion;
+
+        private ManejadorConexion(Connection conexion) {
+            this.conexion = conexion;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getTargetConnection":
+                    return conexion;
+                case "prepareStatement":
+                case "prepareCall":
+                    registrar((String) args[0]);
+                    return invocar(conexion, method, args);
+                case "createStatement":
+                    Statement statement = (Statement) invocar(conexion, method, args);
+                    return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{Statement.class},
+                            new ManejadorStatement(statement, (Connection) proxy));
+                default:
+                    return invocar(conexion, method, args);
+            }
+        }
+    }
+
+    private final class ManejadorStatement implements InvocationHandler {
+        private final Statement statement;
+        private final Connection conexion;
+
+        private ManejadorStatement(Statement statement, Connection conexion) {
+            this.statement = statement;
+            this.conexion = conexion;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getConnection":
+                    return conexion;
+                case "execute":
+                case "executeQuery":
+                case "executeUpdate":
+                case "executeLargeUpdate":
+                case "addBatch":
+                    registrar((String) args[0]);
+                    return invocar(statement, method, args);
+                default:
+                    return invocar(statement, method, args);
+            }
+        }
+    }
+}
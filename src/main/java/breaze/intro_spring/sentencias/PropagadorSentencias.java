@@ -0,0 +1,32 @@
+package breaze.intro_spring.sentencias;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+/**
+ * TaskDecorator que traslada el RegistroSentencias de la petición a las tareas que esta envía a otro executor,
+ * para que las sentencias del cuerpo en streaming de /libro/consultar o de los CompletableFuture de login y
+ * registro se sumen a la petición que las originó.
+ * Spring Boot lo aplica al applicationTaskExecutor, que también ejecuta el procesamiento asíncrono de Spring MVC;
+ * el executor de hashing lo recibe en AuthConfig.
+ */
+@Component
+public class PropagadorSentencias implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable tarea) {
+        RegistroSentencias registro = RegistroSentencias.actual();
+        if (registro == null) {
+            return tarea;
+        }
+        return () -> {
+            RegistroSentencias anterior = RegistroSentencias.actual();
+            RegistroSentencias.establecer(registro);
+            try {
+                tarea.run();
+            } finally {
+                RegistroSentencias.establecer(anterior);
+            }
+        };
+    }
+}
@@ -0,0 +1,151 @@
+package breaze.intro_spring.sentencias;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sentencias SQL ejecutadas durante una petición HTTP.
+ * Se asocia al hilo que atiende la petición (ContadorSentenciasFilter) y lo alimenta DataSourceSentencias.
+ * PropagadorSentencias lo traslada a las tareas que la petición envía a otros executors (streaming, CompletableFuture),
+ * por lo que puede recibir sentencias de varios hilos; las ejecutadas fuera de una petición (tareas programadas) no se cuentan aquí.
+ * Agrupa las sentencias por forma (SQL con las listas de parámetros colapsadas) para detectar
+ * consultas repetidas, el síntoma típico de un problema N+1.
+ */
+public final class RegistroSentencias {
+
+    private static final ThreadLocal<RegistroSentencias> ACTUAL = new ThreadLocal<>();
+
+    /**
+     * Máximo de sentencias por petición; 0 sin límite.
+     */
+    private final int maxTotal;
+    /**
+     * Máximo de ejecuciones de una misma consulta SELECT; 0 sin límite.
+     */
+    private final int maxRepeticiones;
+    /**
+     * Si es true, superar un límite lanza SentenciasExcedidasException (modo de pruebas).
+     */
+    private final boolean rechazar;
+
+    private final AtomicInteger total = new AtomicInteger();
+    private final Map<String, Integer> repeticiones = new ConcurrentHashMap<>();
+    /**
+     * Primera consulta que superó maxRepeticiones; null si no hubo ninguna.
+     */
+    private volatile String consultaRepetida;
+
+    private RegistroSentencias(int maxTotal, int maxRepeticiones, boolean rechazar) {
+        this.maxTotal = maxTotal;
+        this.maxRepeticiones = maxRepeticiones;
+        this.rechazar = rechazar;
+    }
+
+    static RegistroSentencias iniciar(int maxTotal, int maxRepeticiones, boolean rechazar) {
+        RegistroSentencias registro = new RegistroSentencias(maxTotal, maxRepeticiones, rechazar);
+        ACTUAL.set(registro);
+        return registro;
+    }
+
+    static RegistroSentencias actual() {
+        return ACTUAL.get();
+    }
+
+    static void terminar() {
+        ACTUAL.remove();
+    }
+
+    /**
+     * Asocia un registro al hilo actual, o lo desasocia si es null.
+     * @param registro registro de la petición que originó la tarea
+     */
+    static void establecer(RegistroSentencias registro) {
+        if (registro == null) {
+            ACTUAL.remove();
+        } else {
+            ACTUAL.set(registro);
+        }
+    }
+
+    /**
+     * Anota una sentencia y comprueba los límites.
+     * @param sql sentencia tal como se envía al driver JDBC
+     * @throws SentenciasExcedidasException si se supera un límite en modo rechazo
+     */
+    void registrar(String sql) {
+        int total = this.total.incrementAndGet();
+        if (maxTotal > 0 && total > maxTotal && rechazar) {
+            throw new SentenciasExcedidasException("La petición superó el máximo de " + maxTotal + " sentencias SQL");
+        }
+        // Las escrituras repetidas son normales (inserciones en lote); el N+1 es un patrón de lectura
+        if (!sql.regionMatches(true, 0, "select", 0, 6)) {
+            return;
+        }
+        String forma = forma(sql);
+        int veces = repeticiones.merge(forma, 1, Integer::sum);
+        if (maxRepeticiones > 0 && veces > maxRepeticiones) {
+            if (consultaRepetida == null) {
+                // Basta con conservar una de las consultas repetidas si dos hilos llegan a la vez
+                consultaRepetida = forma;
+            }
+            if (rechazar) {
+                throw new SentenciasExcedidasException("Consulta repetida " + veces + " veces (posible N+1): " + forma);
+            }
+        }
+    }
+
+    /**
+     * Normaliza una sentencia colapsando las listas de parámetros ("?, ?, ?" → "?"),
+     * de modo que un IN con distinto número de elementos cuenta como la misma consulta.
+     * @param sql sentencia con parámetros posicionales
+     * @return forma de la sentencia
+     */
+    static String forma(String sql) {
+        if (sql.indexOf('?') < 0) {
+            return sql;
+        }
+        int n = sql.length();
+        StringBuilder sb = new StringBuilder(n);
+        int i = 0;
+        while (i < n) {
+            char c = sql.charAt(i++);
+            sb.append(c);
+            if (c != '?') {
+                continue;
+            }
+            // Salta las repeticiones ", ?" que siguen al parámetro
+            while (true) {
+                int j = saltarEspacios(sql, i);
+                if (j < n && sql.charAt(j) == ',') {
+                    j = saltarEspacios(sql, j + 1);
+                    if (j < n && sql.charAt(j) == '?') {
+                        i = j + 1;
+                        continue;
+                    }
+                }
+                break;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static int saltarEspacios(String sql, int i) {
+        while (i < sql.length() && sql.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    public int getTotal() {
+        return total.get();
+    }
+
+    public String getConsultaRepetida() {
+        return consultaRepetida;
+    }
+
+    public boolean excedeTotal() {
+        return maxTotal > 0 && total.get() > maxTotal;
+    }
+}
@@ -0,0 +1,16 @@
+package breaze.intro_spring.sentencias;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Se lanza en modo rechazo cuando una petición supera el presupuesto de sentencias SQL
+ * o repite una consulta más veces de lo permitido. Pensada para fallar las pruebas que
+ * introducen consultas N+1, no para producción.
+ */
+public class SentenciasExcedidasException extends ResponseStatusException {
+
+    public SentenciasExcedidasException(String mensaje) {
+        super(HttpStatus.INTERNAL_SERVER_ERROR, mensaje);
+    }
+}
@@ -0,0 +1,11 @@
+package breaze.intro_spring.services;
+
+import breaze.intro_spring.eventos.CambioCatalogoEvent;
+import breaze.intro_spring.model.dto.SugerenciaDTO;
+
+import java.util.List;
+
+public interface IAutocompletadoService {
+    public List<SugerenciaDTO> sugerir(String prefijo, int limite);
+    public void registrarSeleccion(CambioCatalogoEvent.Entidad tipo, Long id);
+}
@@ -1,17 +1,19 @@
 package breaze.intro_spring.services;
 
+import breaze.intro_spring.model.dto.AutorDTO;
+import breaze.intro_spring.model.dto.ResultadoBusquedaDTO;
 import breaze.intro_spring.model.entidades.Autor;
 import java.util.List;
 import java.util.Optional;
 
 public interface IAutorService {
-    public List<Autor> obtenerAutores();
-    public Optional<Autor> obtenerAutor(Long id);
-    public  Autor crearAutor(Autor autor);
+    public List<AutorDTO> obtenerAutores();
+    public Optional<AutorDTO> obtenerAutor(Long id);
+    public  AutorDTO crearAutor(Autor autor);
     public boolean eliminarAutor(Long id);
-    public Optional<Autor> actualizarAutor(Long id, Autor autor);
-    public Optional<Autor> actualizacionParcial(Long id, Autor autor);
+    public Optional<AutorDTO> actualizarAutor(Long id, Autor autor);
+    public Optional<AutorDTO> actualizacionParcial(Long id, Autor autor);
     public Integer contarAutoresPorNacionalidad(String nacionalidad);
-    public List<Autor> buscarAutoresPorTexto(String text);
+    public ResultadoBusquedaDTO<AutorDTO> buscarAutoresPorTexto(String text, int pagina, int tamanio);
     public boolean existeAutor(Long id);
 }
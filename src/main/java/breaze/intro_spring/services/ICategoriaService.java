@@ -1,5 +1,8 @@
 package breaze.intro_spring.services;
 
+import java.util.Set;
+
 public interface ICategoriaService {
     public boolean validarExistenciaCategoria(Long categoria);
+    public boolean validarExistenciaCategorias(Set<Long> categorias);
 }
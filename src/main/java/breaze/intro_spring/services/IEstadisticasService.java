@@ -0,0 +1,7 @@
+package breaze.intro_spring.services;
+
+import breaze.intro_spring.model.dto.EstadisticasAutoresDTO;
+
+public interface IEstadisticasService {
+    public EstadisticasAutoresDTO obtenerEstadisticas(int limiteAutores);
+}
@@ -0,0 +1,10 @@
+package breaze.intro_spring.services;
+
+import breaze.intro_spring.model.dto.CrearLibroInDTO;
+import breaze.intro_spring.model.dto.ResultadoImportacionDTO;
+
+import java.util.Iterator;
+
+public interface IImportacionLibroService {
+    public ResultadoImportacionDTO importarLibros(Iterator<CrearLibroInDTO> libros);
+}
@@ -4,13 +4,18 @@ package breaze.intro_spring.services;
 
 import breaze.intro_spring.model.dto.CrearLibroInDTO;
 import breaze.intro_spring.model.dto.CrearLibroOutDTO;
+import breaze.intro_spring.model.dto.LibroDTO;
+import breaze.intro_spring.model.dto.PaginaDTO;
+import breaze.intro_spring.model.dto.ResultadoBusquedaDTO;
 import breaze.intro_spring.model.entidades.Libro;
 
-import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface ILibroService {
     public CrearLibroOutDTO crearLibro(CrearLibroInDTO crearLibroInDTO);
-    public List<Libro> obtenerLibros();
-    public Optional<Libro> actualizarParcial(Long id, Libro libro);
+    public PaginaDTO<LibroDTO> obtenerLibros(Long cursor, int tamanio);
+    public void recorrerLibros(Consumer<LibroDTO> consumidor);
+    public Optional<LibroDTO> actualizarParcial(Long id, Libro libro);
+    public ResultadoBusquedaDTO<LibroDTO> buscarLibros(String texto, int pagina, int tamanio);
 }
@@ -0,0 +1,217 @@
+package breaze.intro_spring.services.impl;
+
+import breaze.intro_spring.busqueda.TrieAutocompletado;
+import breaze.intro_spring.eventos.CambioCatalogoEvent;
+import breaze.intro_spring.model.dto.AutorDTO;
+import breaze.intro_spring.model.dto.LibroDTO;
+import breaze.intro_spring.model.dto.SugerenciaDTO;
+import breaze.intro_spring.repositorios.AutorRepository;
+import breaze.intro_spring.repositorios.LibroRepository;
+import breaze.intro_spring.services.IAutocompletadoService;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Implementación del autocompletado de títulos de libros y nombres de autores.
+ * Las consultas leen un TrieAutocompletado inmutable a través de una referencia volatile, sin bloqueos.
+ * Los cambios del catálogo y las selecciones de los usuarios se acumulan en mapas concurrentes y
+ * un proceso programado construye un trie nuevo y reemplaza la referencia (copy-on-write), agrupando
+ * las escrituras seguidas, como las de una importación masiva, en una sola reconstrucción.
+ * La popularidad de un autor es su número de libros; a ella se suman las selecciones registradas.
+ * Para mantener ese número al eliminar un libro o cambiarlo de autor se guarda el autor de cada libro.
+ */
+@Service
+public class AutocompletadoService implements IAutocompletadoService {
+
+    /**
+     * Identifica una sugerencia por entidad e ID.
+     */
+    private record Clave(CambioCatalogoEvent.Entidad tipo, Long id) {
+    }
+
+    private final AutorRepository autorRepository;
+    private final LibroRepository libroRepository;
+    /**
+     * Texto vigente de cada sugerencia; fuente del próximo trie.
+     */
+    private final Map<Clave, String> textos = new ConcurrentHashMap<>();
+    /**
+     * Número de libros de cada autor.
+     */
+    private final Map<Long, LongAdder> librosPorAutor = new ConcurrentHashMap<>();
+    /**
+     * Autor de cada libro, para descontarlo del autor anterior al eliminar o reasignar el libro.
+     */
+    private final Map<Long, Long> autorPorLibro = new ConcurrentHashMap<>();
+    /**
+     * Veces que los usuarios eligieron cada sugerencia.
+     */
+    private final Map<Clave, LongAdder> selecciones = new ConcurrentHashMap<>();
+    /**
+     * Hay cambios del catálogo sin reflejar en el trie.
+     */
+    private final AtomicBoolean cambiosPendientes = new AtomicBoolean();
+    /**
+     * Hay selecciones sin reflejar en el trie.
+     */
+    private final AtomicBoolean seleccionesPendientes = new AtomicBoolean();
+    /**
+     * Trie publicado; se reemplaza completo en cada reconstrucción.
+     */
+    private volatile TrieAutocompletado trie = TrieAutocompletado.vacio();
+
+    public AutocompletadoService(AutorRepository autorRepository, LibroRepository libroRepository) {
+        this.autorRepository = autorRepository;
+        this.libroRepository = libroRepository;
+    }
+
+    /**
+     * Devuelve las sugerencias más populares para el prefijo escrito.
+     * @param prefijo texto escrito por el usuario
+     * @param limite número máximo de sugerencias
+     * @return sugerencias ordenadas por popularidad
+     */
+    @Override
+    public List<SugerenciaDTO> sugerir(String prefijo, int limite) {
+        List<TrieAutocompletado.Sugerencia> encontradas = trie.buscar(prefijo, limite);
+        List<SugerenciaDTO> resultado = new ArrayList<>(encontradas.size());
+        for (TrieAutocompletado.Sugerencia sugerencia : encontradas) {
+            resultado.add(new SugerenciaDTO(sugerencia.tipo().name(), sugerencia.id(), sugerencia.texto()));
+        }
+        return resultado;
+    }
+
+    /**
+     * Registra que un usuario eligió una sugerencia, aumentando su popularidad.
+     * @param tipo entidad de la sugerencia
+     * @param id identificador de la entidad
+     */
+    @Override
+    public void registrarSeleccion(CambioCatalogoEvent.Entidad tipo, Long id) {
+        Clave clave = new Clave(tipo, id);
+        if (textos.containsKey(clave)) {
+            selecciones.computeIfAbsent(clave, c -> new LongAdder()).increment();
+            seleccionesPendientes.set(true);
+        }
+    }
+
+    /**
+     * Carga los títulos y nombres del catálogo al arrancar y publica el primer trie.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void cargar() {
+        for (AutorDTO autor : autorRepository.buscarTodos()) {
+            textos.put(new Clave(CambioCatalogoEvent.Entidad.AUTOR, autor.getId()), autor.getNombre());
+        }
+        try (Stream<LibroDTO> libros = libroRepository.recorrerTodos()) {
+            libros.forEach(libro -> {
+                textos.put(new Clave(CambioCatalogoEvent.Entidad.LIBRO, libro.getId()), libro.getTitulo());
+                asignarAutor(libro.getId(), libro.getAutorId());
+            });
+        }
+        reconstruir();
+    }
+
+    /**
+     * Registra un cambio del catálogo tras el commit; el trie se reconstruye en la siguiente pasada programada.
+     * @param evento cambio publicado por los servicios
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarCatalogo(CambioCatalogoEvent evento) {
+        if (evento.id() == null) {
+            return;
+        }
+        Clave clave = new Clave(evento.entidad(), evento.id());
+        if (evento.operacion() == CambioCatalogoEvent.Operacion.ELIMINAR) {
+            textos.remove(clave);
+            selecciones.remove(clave);
+            if (evento.entidad() == CambioCatalogoEvent.Entidad.LIBRO) {
+                asignarAutor(evento.id(), null);
+            } else if (evento.entidad() == CambioCatalogoEvent.Entidad.AUTOR) {
+                librosPorAutor.remove(evento.id());
+            }
+        } else if (evento.datos() instanceof AutorDTO autor && autor.getNombre() != null) {
+            textos.put(clave, autor.getNombre());
+        } else if (evento.datos() instanceof LibroDTO libro && libro.getTitulo() != null) {
+            textos.put(clave, libro.getTitulo());
+            if (libro.getAutorId() != null) {
+                asignarAutor(evento.id(), libro.getAutorId());
+            }
+        }
+        cambiosPendientes.set(true);
+    }
+
+    /**
+     * Publica un trie nuevo si hubo cambios en el catálogo desde la última reconstrucción.
+     */
+    @Scheduled(fixedDelayString = "${autocompletar.reconstruccion-ms:1000}")
+    public void reconstruirSiHayCambios() {
+        if (cambiosPendientes.getAndSet(false)) {
+            reconstruir();
+        }
+    }
+
+    /**
+     * Publica un trie nuevo si cambió la popularidad; con menos frecuencia que los cambios del catálogo.
+     */
+    @Scheduled(fixedDelayString = "${autocompletar.popularidad-ms:60000}")
+    public void actualizarPopularidad() {
+        if (seleccionesPendientes.getAndSet(false)) {
+            reconstruir();
+        }
+    }
+
+    private void reconstruir() {
+        List<TrieAutocompletado.Sugerencia> sugerencias = new ArrayList<>(textos.size());
+        textos.forEach((clave, texto) -> sugerencias.add(
+                new TrieAutocompletado.Sugerencia(clave.tipo(), clave.id(), texto, peso(clave))));
+        trie = TrieAutocompletado.construir(sugerencias);
+    }
+
+    private long peso(Clave clave) {
+        long peso = valor(selecciones.get(clave));
+        if (clave.tipo() == CambioCatalogoEvent.Entidad.AUTOR) {
+            peso += valor(librosPorAutor.get(clave.id()));
+        }
+        return peso;
+    }
+
+    /**
+     * Registra el autor de un libro, moviendo su cuenta desde el autor anterior si cambió.
+     * @param libroId identificador del libro
+     * @param autorId nuevo autor, o null si el libro se eliminó
+     */
+    private void asignarAutor(Long libroId, Long autorId) {
+        Long anterior = autorId == null ? autorPorLibro.remove(libroId) : autorPorLibro.put(libroId, autorId);
+        if (Objects.equals(anterior, autorId)) {
+            return;
+        }
+        if (anterior != null) {
+            LongAdder contador = librosPorAutor.get(anterior);
+            if (contador != null) {
+                contador.decrement();
+            }
+        }
+        if (autorId != null) {
+            librosPorAutor.computeIfAbsent(autorId, id -> new LongAdder()).increment();
+        }
+    }
+
+    private static long valor(LongAdder contador) {
+        return contador == null ? 0 : contador.sum();
+    }
+}
@@ -1,8 +1,20 @@
 package breaze.intro_spring.services.impl;
 
+import breaze.intro_spring.busqueda.IndiceBusqueda;
+import breaze.intro_spring.busqueda.IndiceTexto;
+import breaze.intro_spring.config.CacheConfig;
+import breaze.intro_spring.eventos.CambioCatalogoEvent;
+import breaze.intro_spring.indices.IndiceIds;
+import breaze.intro_spring.indices.IndicesReferencia;
+import breaze.intro_spring.model.dto.AutorDTO;
+import breaze.intro_spring.model.dto.ResultadoBusquedaDTO;
 import breaze.intro_spring.model.entidades.Autor;
 import breaze.intro_spring.repositorios.AutorRepository;
 import breaze.intro_spring.services.IAutorService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -12,6 +24,8 @@ import java.util.Optional;
  * Implementación del servicio de autores.
  * Proporciona la lógica de negocio para la gestión de autores, incluyendo operaciones CRUD y búsquedas personalizadas.
  * Utiliza AutorRepository para el acceso a datos.
+ * Las lecturas pasan por la caché de segundo nivel; cada escritura desaloja el autor afectado
+ * y la región de consultas de autores.
  */
 @Service
 public class AutorService implements IAutorService {
@@ -19,13 +33,39 @@ public class AutorService implements IAutorService {
      * Repositorio para la gestión de autores en la base de datos.
      */
     private AutorRepository autorRepository;
+    /**
+     * Caché de segundo nivel de Hibernate.
+     */
+    private final Cache cache;
+    /**
+     * Índice en memoria con los IDs de autores existentes.
+     */
+    private final IndiceIds indiceAutores;
+    /**
+     * Índice de texto completo usado en las búsquedas.
+     */
+    private final IndiceBusqueda indiceBusqueda;
+    /**
+     * Publicador de los eventos de cambio del catálogo.
+     */
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Constructor que inyecta el repositorio de autores.
      * @param autorRepository repositorio de autores
+     * @param entityManagerFactory fábrica de la que se obtiene la caché de segundo nivel
+     * @param indices índices de IDs de las tablas de referencia
+     * @param indiceBusqueda índice de texto completo
+     * @param eventPublisher publicador de eventos de Spring
      */
-    public AutorService(AutorRepository autorRepository) {
+    public AutorService(AutorRepository autorRepository, EntityManagerFactory entityManagerFactory,
+                        IndicesReferencia indices, IndiceBusqueda indiceBusqueda,
+                        ApplicationEventPublisher eventPublisher) {
         this.autorRepository = autorRepository;
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        this.indiceAutores = indices.getAutores();
+        this.indiceBusqueda = indiceBusqueda;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -33,8 +73,8 @@ public class AutorService implements IAutorService {
      * @return lista de autores
      */
     @Override
-    public List<Autor> obtenerAutores() {
-        return this.autorRepository.findAll();
+    public List<AutorDTO> obtenerAutores() {
+        return this.autorRepository.buscarTodos();
     }
 
     /**
@@ -43,8 +83,8 @@ public class AutorService implements IAutorService {
      * @return Optional con el autor encontrado o vacío si no existe
      */
     @Override
-    public Optional<Autor> obtenerAutor(Long id) {
-        return this.autorRepository.findById(id);
+    public Optional<AutorDTO> obtenerAutor(Long id) {
+        return this.autorRepository.buscarPorId(id);
     }
 
     /**
@@ -52,8 +92,11 @@ public class AutorService implements IAutorService {
      * @param autor datos del autor a crear
      * @return autor creado
      */
-    public Autor crearAutor(Autor autor) {
-        return this.autorRepository.save(autor);
+    public AutorDTO crearAutor(Autor autor) {
+        AutorDTO creado = toDTO(this.autorRepository.save(autor));
+        evictar(creado.getId());
+        publicar(CambioCatalogoEvent.Operacion.CREAR, creado.getId(), creado);
+        return creado;
     }
 
     /**
@@ -65,6 +108,8 @@ public class AutorService implements IAutorService {
     public boolean eliminarAutor(Long id) {
         return this.autorRepository.findById(id).map(autor -> {
             autorRepository.delete(autor);
+            evictar(id);
+            publicar(CambioCatalogoEvent.Operacion.ELIMINAR, id, null);
             return true;
         }).orElse(false);
     }
@@ -76,12 +121,15 @@ public class AutorService implements IAutorService {
      * @return Optional con el autor actualizado o vacío si no existe
      */
     @Override
-    public Optional<Autor> actualizarAutor(Long id, Autor autor) {
+    public Optional<AutorDTO> actualizarAutor(Long id, Autor autor) {
          return autorRepository.findById(id)
                  .map(existingAutor -> {
                         existingAutor.setNombre(autor.getNombre());
                         existingAutor.setNacionalidad(autor.getNacionalidad());
-                        return autorRepository.save(existingAutor);
+                        AutorDTO actualizado = toDTO(autorRepository.save(existingAutor));
+                        evictar(id);
+                        publicar(CambioCatalogoEvent.Operacion.ACTUALIZAR, id, actualizado);
+                        return actualizado;
                  });
     }
 
@@ -93,7 +141,7 @@ public class AutorService implements IAutorService {
      * @return Optional con el autor actualizado o vacío si no existe
      */
     @Override
-    public Optional<Autor> actualizacionParcial(Long id, Autor autor) {
+    public Optional<AutorDTO> actualizacionParcial(Long id, Autor autor) {
         return autorRepository.findById(id)
                 .map(existingAutor -> {
                     if (autor.getNombre() != null) {
@@ -102,33 +150,85 @@ public class AutorService implements IAutorService {
                     if (autor.getNacionalidad() != null) {
                         existingAutor.setNacionalidad(autor.getNacionalidad());
                     }
-                    return autorRepository.save(existingAutor);
+                    AutorDTO actualizado = toDTO(autorRepository.save(existingAutor));
+                    evictar(id);
+                    publicar(CambioCatalogoEvent.Operacion.ACTUALIZACION_PARCIAL, id, actualizado);
+                    return actualizado;
                 });
     }
 
     /**
-     * Cuenta la cantidad de autores por nacionalidad.
+     * Cuenta la cantidad de autores por nacionalidad con una consulta COUNT, sin cargar las entidades.
      * @param nacionalidad nacionalidad a buscar
      * @return número de autores con esa nacionalidad
      */
     @Override
     public Integer contarAutoresPorNacionalidad(String nacionalidad){
-        return autorRepository.findByNacionalidad(nacionalidad).size();
+        return Math.toIntExact(autorRepository.countByNacionalidad(nacionalidad));
     }
 
     /**
-     * Busca autores cuyo nombre contenga el texto proporcionado (ignorando mayúsculas/minúsculas).
+     * Busca autores por nombre o nacionalidad en el índice de texto completo.
+     * Admite prefijos, errores tipográficos leves y no distingue mayúsculas ni acentos.
      * @param text texto a buscar
-     * @return lista de autores encontrados
+     * @param pagina número de página, empezando en 0
+     * @param tamanio autores por página
+     * @return página de autores ordenados por relevancia
      */
     @Override
-    public List<Autor> buscarAutoresPorTexto(String text){
-        return autorRepository.findByNombreContainingIgnoreCase(text);
+    public ResultadoBusquedaDTO<AutorDTO> buscarAutoresPorTexto(String text, int pagina, int tamanio) {
+        IndiceTexto.Resultado resultado = indiceBusqueda.buscarAutores(text, pagina, tamanio);
+        List<AutorDTO> autores = resultado.ids().isEmpty() ? List.of()
+                : resultado.ordenar(autorRepository.buscarPorIds(resultado.ids()), AutorDTO::getId);
+        return new ResultadoBusquedaDTO<>(autores, resultado.total(), pagina, tamanio);
     }
 
+    /**
+     * Comprueba si existe un autor.
+     * Un acierto en el índice en memoria responde sin ir a la base de datos. Un fallo se confirma
+     * con findById (resuelto desde la caché de segundo nivel cuando es posible), por si el autor
+     * se creó en otra instancia y el índice aún no se ha reconciliado.
+     * El resultado no se añade al índice: una lectura confirmada justo antes de que se confirme un borrado
+     * volvería a marcar el ID como existente después de que el listener lo quitara. El índice solo lo
+     * actualizan los listeners tras el commit y la reconciliación periódica.
+     * @param id identificador del autor
+     * @return true si el autor existe
+     */
     @Override
     public boolean existeAutor(Long id) {
-        return this.autorRepository.existsById(id);
+        if (indiceAutores.contiene(id)) {
+            return true;
+        }
+        return id != null && this.autorRepository.findById(id).isPresent();
     }
 
+    /**
+     * Desaloja de la caché de segundo nivel el autor modificado y las consultas cacheadas de autores.
+     * @param id identificador del autor modificado
+     */
+    private void evictar(Long id) {
+        if (id != null) {
+            cache.evictEntityData(Autor.class, id);
+        }
+        cache.evictQueryRegion(CacheConfig.REGION_CONSULTAS_AUTOR);
+    }
+
+    /**
+     * Publica el cambio de un autor para los componentes que mantienen datos derivados.
+     * @param operacion operación realizada
+     * @param id identificador del autor
+     * @param autor estado resultante; null si se eliminó
+     */
+    private void publicar(CambioCatalogoEvent.Operacion operacion, Long id, AutorDTO autor) {
+        eventPublisher.publishEvent(new CambioCatalogoEvent(CambioCatalogoEvent.Entidad.AUTOR, operacion, id, autor));
+    }
+
+    /**
+     * Convierte un autor persistido en su DTO de lectura.
+     * @param autor entidad autor
+     * @return DTO con los datos del autor
+     */
+    private static AutorDTO toDTO(Autor autor) {
+        return new AutorDTO(autor.getId(), autor.getNombre(), autor.getNacionalidad());
+    }
 }
@@ -1,19 +1,37 @@
 package breaze.intro_spring.services.impl;
 
+import breaze.intro_spring.indices.IndiceIds;
+import breaze.intro_spring.indices.IndicesReferencia;
 import breaze.intro_spring.repositorios.CategoriaRepository;
 import breaze.intro_spring.services.ICategoriaService;
 import org.springframework.stereotype.Service;
 
+import java.util.Set;
+
 @Service
 public class CategoriaService implements ICategoriaService {
     private final CategoriaRepository categoriaRepository;
+    private final IndiceIds indiceCategorias;
 
-    public CategoriaService(CategoriaRepository categoriaRepository) {
+    public CategoriaService(CategoriaRepository categoriaRepository, IndicesReferencia indices) {
         this.categoriaRepository = categoriaRepository;
+        this.indiceCategorias = indices.getCategorias();
     }
 
     @Override
     public boolean validarExistenciaCategoria(Long categoria) {
-        return categoriaRepository.existsById(categoria);
+        // Los fallos del índice se confirman en base de datos por si aún no se ha reconciliado
+        return indiceCategorias.contiene(categoria) || categoriaRepository.existsById(categoria);
+    }
+
+    @Override
+    public boolean validarExistenciaCategorias(Set<Long> categorias) {
+        for (Long categoria : categorias) {
+            if (!indiceCategorias.contiene(categoria)) {
+                // Una única consulta COUNT ... WHERE id IN (...) en lugar de una por categoría
+                return categoriaRepository.countByIdIn(categorias) == categorias.size();
+            }
+        }
+        return true;
     }
 }
@@ -0,0 +1,208 @@
+package breaze.intro_spring.services.impl;
+
+import breaze.intro_spring.eventos.CambioCatalogoEvent;
+import breaze.intro_spring.model.dto.AutorDTO;
+import breaze.intro_spring.model.dto.ConteoAnioDTO;
+import breaze.intro_spring.model.dto.ConteoNacionalidadDTO;
+import breaze.intro_spring.model.dto.EstadisticasAutoresDTO;
+import breaze.intro_spring.model.dto.LibroDTO;
+import breaze.intro_spring.model.dto.LibrosPorAutorDTO;
+import breaze.intro_spring.repositorios.AutorRepository;
+import breaze.intro_spring.repositorios.LibroRepository;
+import breaze.intro_spring.services.IEstadisticasService;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Implementación de las estadísticas del catálogo.
+ * Mantiene en memoria un resumen con los conteos agregados, calculado con consultas GROUP BY,
+ * para que los paneles no recorran las tablas en cada petición.
+ * Las altas de autores y libros se suman al resumen en cuanto se confirman; las modificaciones y
+ * eliminaciones, que no se pueden aplicar sin conocer el estado anterior, programan un recálculo
+ * a los pocos segundos. Además, el resumen se recalcula completo de forma periódica.
+ * Un alta confirmada mientras se ejecuta un recálculo puede perderse (se aplicó al resumen anterior)
+ * o contarse dos veces (ya estaba en las consultas), así que en ese caso se programa otro recálculo.
+ */
+@Service
+public class EstadisticasService implements IEstadisticasService {
+
+    /**
+     * Clave usada para los valores nulos, que ConcurrentHashMap no admite.
+     */
+    private static final String SIN_NACIONALIDAD = "\u0000";
+    private static final int SIN_ANIO = Integer.MIN_VALUE;
+
+    /**
+     * Conteo de libros de un autor.
+     */
+    private static final class LibrosAutor {
+        private final Long autorId;
+        private final String nombre;
+        private final LongAdder libros = new LongAdder();
+
+        LibrosAutor(Long autorId, String nombre, long libros) {
+            this.autorId = autorId;
+            this.nombre = nombre;
+            this.libros.add(libros);
+        }
+
+        LibrosPorAutorDTO toDTO() {
+            return new LibrosPorAutorDTO(autorId, nombre, libros.sum());
+        }
+    }
+
+    /**
+     * Resumen de conteos. Se reemplaza completo en cada recálculo.
+     */
+    private static final class Resumen {
+        private final Map<String, LongAdder> autoresPorNacionalidad = new ConcurrentHashMap<>();
+        private final Map<Long, LibrosAutor> librosPorAutor = new ConcurrentHashMap<>();
+        private final Map<Integer, LongAdder> librosPorAnio = new ConcurrentHashMap<>();
+        private final Instant actualizadoEn = Instant.now();
+    }
+
+    private final AutorRepository autorRepository;
+    private final LibroRepository libroRepository;
+    /**
+     * Resumen vigente; null hasta el primer cálculo.
+     */
+    private volatile Resumen resumen;
+    /**
+     * Hay cambios que solo se pueden reflejar recalculando el resumen.
+     */
+    private final AtomicBoolean recalculoPendiente = new AtomicBoolean();
+    /**
+     * Número de cambios recibidos; permite detectar los que llegan durante un recálculo.
+     */
+    private final AtomicLong generacion = new AtomicLong();
+
+    public EstadisticasService(AutorRepository autorRepository, LibroRepository libroRepository) {
+        this.autorRepository = autorRepository;
+        this.libroRepository = libroRepository;
+    }
+
+    /**
+     * Devuelve las estadísticas desde el resumen en memoria.
+     * @param limiteAutores número máximo de autores en la lista de libros por autor
+     * @return autores por nacionalidad, autores con más libros y libros por año de publicación
+     */
+    @Override
+    public EstadisticasAutoresDTO obtenerEstadisticas(int limiteAutores) {
+        Resumen actual = resumen;
+        if (actual == null) {
+            actual = recalcular();
+        }
+        List<ConteoNacionalidadDTO> nacionalidades = actual.autoresPorNacionalidad.entrySet().stream()
+                .map(e -> new ConteoNacionalidadDTO(SIN_NACIONALIDAD.equals(e.getKey()) ? null : e.getKey(), e.getValue().sum()))
+                .filter(conteo -> conteo.getAutores() > 0)
+                .sorted(Comparator.comparing(ConteoNacionalidadDTO::getAutores).reversed())
+                .toList();
+        List<LibrosPorAutorDTO> autores = actual.librosPorAutor.values().stream()
+                .map(LibrosAutor::toDTO)
+                .sorted(Comparator.comparing(LibrosPorAutorDTO::getLibros).reversed()
+                        .thenComparing(LibrosPorAutorDTO::getAutorId))
+                .limit(limiteAutores)
+                .toList();
+        List<ConteoAnioDTO> anios = actual.librosPorAnio.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(e -> new ConteoAnioDTO(e.getKey() == SIN_ANIO ? null : e.getKey(), e.getValue().sum()))
+                .toList();
+        return new EstadisticasAutoresDTO(nacionalidades, autores, anios, actual.actualizadoEn);
+    }
+
+    /**
+     * Aplica al resumen un cambio del catálogo confirmado.
+     * @param evento cambio publicado por los servicios
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarCatalogo(CambioCatalogoEvent evento) {
+        if (evento.entidad() == CambioCatalogoEvent.Entidad.LIBRO_CATEGORIA) {
+            // Las categorías no forman parte del resumen
+            return;
+        }
+        generacion.incrementAndGet();
+        Resumen actual = resumen;
+        if (actual == null) {
+            return;
+        }
+        if (evento.operacion() != CambioCatalogoEvent.Operacion.CREAR) {
+            recalculoPendiente.set(true);
+        } else if (evento.datos() instanceof AutorDTO autor) {
+            contar(actual.autoresPorNacionalidad, clave(autor.getNacionalidad()));
+            actual.librosPorAutor.putIfAbsent(autor.getId(), new LibrosAutor(autor.getId(), autor.getNombre(), 0));
+        } else if (evento.datos() instanceof LibroDTO libro) {
+            contar(actual.librosPorAnio, libro.getAnioPublicacion() == null ? SIN_ANIO : libro.getAnioPublicacion());
+            LibrosAutor librosAutor = libro.getAutorId() == null ? null : actual.librosPorAutor.get(libro.getAutorId());
+            if (librosAutor != null) {
+                librosAutor.libros.increment();
+            } else {
+                recalculoPendiente.set(true);
+            }
+        }
+    }
+
+    /**
+     * Recalcula el resumen poco después de una modificación o eliminación.
+     */
+    @Scheduled(fixedDelayString = "${estadisticas.recalculo-pendiente-ms:5000}")
+    public void recalcularSiPendiente() {
+        if (recalculoPendiente.getAndSet(false)) {
+            recalcular();
+        }
+    }
+
+    /**
+     * Recalcula el resumen al arrancar y de forma periódica, para recoger también los cambios
+     * hechos fuera de la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${estadisticas.refresco-ms:300000}", fixedDelayString = "${estadisticas.refresco-ms:300000}")
+    public void refrescar() {
+        recalcular();
+    }
+
+    /**
+     * Ejecuta las consultas agregadas y publica el nuevo resumen.
+     * @return resumen publicado
+     */
+    private Resumen recalcular() {
+        long inicio = generacion.get();
+        Resumen nuevo = new Resumen();
+        for (ConteoNacionalidadDTO conteo : autorRepository.contarPorNacionalidad()) {
+            nuevo.autoresPorNacionalidad.computeIfAbsent(clave(conteo.getNacionalidad()), k -> new LongAdder())
+                    .add(conteo.getAutores());
+        }
+        for (LibrosPorAutorDTO conteo : libroRepository.contarPorAutor()) {
+            nuevo.librosPorAutor.put(conteo.getAutorId(), new LibrosAutor(conteo.getAutorId(), conteo.getNombre(), conteo.getLibros()));
+        }
+        for (ConteoAnioDTO conteo : libroRepository.contarPorAnio()) {
+            int anio = conteo.getAnioPublicacion() == null ? SIN_ANIO : conteo.getAnioPublicacion();
+            nuevo.librosPorAnio.computeIfAbsent(anio, k -> new LongAdder()).add(conteo.getLibros());
+        }
+        resumen = nuevo;
+        if (generacion.get() != inicio) {
+            recalculoPendiente.set(true);
+        }
+        return nuevo;
+    }
+
+    private static String clave(String nacionalidad) {
+        return nacionalidad == null ? SIN_NACIONALIDAD : nacionalidad;
+    }
+
+    private static <K> void contar(Map<K, LongAdder> conteos, K clave) {
+        conteos.computeIfAbsent(clave, k -> new LongAdder()).increment();
+    }
+}
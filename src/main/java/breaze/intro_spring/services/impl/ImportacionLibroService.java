@@ -0,0 +1,277 @@
+package breaze.intro_spring.services.impl;
+
+import breaze.intro_spring.eventos.CambioCatalogoEvent;
+import breaze.intro_spring.indices.IndiceIds;
+import breaze.intro_spring.indices.IndicesReferencia;
+import breaze.intro_spring.model.dto.AutorDTO;
+import breaze.intro_spring.model.dto.CrearLibroInDTO;
+import breaze.intro_spring.model.dto.ErrorImportacionDTO;
+import breaze.intro_spring.model.dto.LibroCategoriaDTO;
+import breaze.intro_spring.model.dto.LibroDTO;
+import breaze.intro_spring.model.dto.ResultadoImportacionDTO;
+import breaze.intro_spring.model.entidades.Autor;
+import breaze.intro_spring.model.entidades.DetalleLibro;
+import breaze.intro_spring.model.entidades.Libro;
+import breaze.intro_spring.model.entidades.LibroCategoria;
+import breaze.intro_spring.repositorios.AutorRepository;
+import breaze.intro_spring.repositorios.CategoriaRepository;
+import breaze.intro_spring.services.IImportacionLibroService;
+import breaze.intro_spring.services.ILibroCategoriaService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Implementación de la importación masiva de libros.
+ * Recorre la entrada una sola vez en bloques de tamaño fijo: valida cada fila contra los índices en memoria de autores y
+ * categorías (o contra sus IDs cargados al inicio si los índices aún no están listos) y persiste las filas válidas de cada
+ * bloque en su propia transacción, vaciando el contexto de persistencia tras cada lote para mantener la memoria estable.
+ * Los IDs que no están en el índice se confirman en la base de datos con una consulta por bloque antes de rechazar la fila,
+ * por ejemplo si se crearon en otra instancia o durante una recarga del índice. Los confirmados no se añaden al índice,
+ * que solo actualizan los listeners tras el commit y la reconciliación, para no reintroducir un ID borrado entretanto.
+ * Los errores de lectura y de base de datos se registran en el log; al cliente solo se le devuelve un mensaje genérico por fila.
+ */
+@Service
+public class ImportacionLibroService implements IImportacionLibroService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportacionLibroService.class);
+
+    /**
+     * Número máximo de errores detallados en el resultado.
+     */
+    private static final int MAX_ERRORES = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final AutorRepository autorRepository;
+    private final CategoriaRepository categoriaRepository;
+    private final ILibroCategoriaService libroCategoriaService;
+    private final IndicesReferencia indices;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    /**
+     * Número de libros persistidos por transacción.
+     */
+    private final int tamanioLote;
+
+    public ImportacionLibroService(AutorRepository autorRepository, CategoriaRepository categoriaRepository,
+                                   ILibroCategoriaService libroCategoriaService, IndicesReferencia indices,
+                                   ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager,
+                                   @Value("${libros.importacion.tamanio-lote:500}") int tamanioLote) {
+        this.autorRepository = autorRepository;
+        this.categoriaRepository = categoriaRepository;
+        this.libroCategoriaService = libroCategoriaService;
+        this.indices = indices;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tamanioLote = tamanioLote;
+    }
+
+    /**
+     * Importa los libros entregados por el iterador.
+     * Si el iterador falla (por ejemplo, JSON mal formado) la importación se detiene;
+     * los lotes ya confirmados se conservan.
+     * @param libros libros a importar, leídos en streaming
+     * @return resumen con los contadores y las filas con error
+     */
+    @Override
+    public ResultadoImportacionDTO importarLibros(Iterator<CrearLibroInDTO> libros) {
+        ResultadoImportacionDTO resultado = new ResultadoImportacionDTO();
+        IndiceIds indiceAutores = indices.getAutores();
+        IndiceIds indiceCategorias = indices.getCategorias();
+        Predicate<Long> autores = indiceAutores.isCargado()
+                ? indiceAutores::contiene : new HashSet<>(autorRepository.buscarIds())::contains;
+        Predicate<Long> categorias = indiceCategorias.isCargado()
+                ? indiceCategorias::contiene : new HashSet<>(categoriaRepository.buscarIds())::contains;
+
+        List<CrearLibroInDTO> bloque = new ArrayList<>(tamanioLote);
+        List<Long> filasBloque = new ArrayList<>(tamanioLote);
+        long fila = 0;
+        while (true) {
+            CrearLibroInDTO libro;
+            try {
+                if (!libros.hasNext()) {
+                    break;
+                }
+                libro = libros.next();
+            } catch (RuntimeException e) {
+                log.warn("Entrada de importación inválida en la fila {}", fila + 1, e);
+                registrarError(resultado, fila + 1, "Entrada inválida, importación detenida");
+                break;
+            }
+            fila++;
+            resultado.setProcesados(fila);
+            bloque.add(libro);
+            filasBloque.add(fila);
+            if (bloque.size() == tamanioLote) {
+                procesarBloque(bloque, filasBloque, autores, categorias, resultado);
+            }
+        }
+        if (!bloque.isEmpty()) {
+            procesarBloque(bloque, filasBloque, autores, categorias, resultado);
+        }
+        return resultado;
+    }
+
+    /**
+     * Valida las filas de un bloque y persiste las válidas.
+     * Los IDs de autor y categoría que no están en los IDs conocidos se confirman en la base de datos
+     * con una consulta por tabla, y los encontrados se aceptan solo para este bloque.
+     */
+    private void procesarBloque(List<CrearLibroInDTO> bloque, List<Long> filasBloque, Predicate<Long> autores,
+                                Predicate<Long> categorias, ResultadoImportacionDTO resultado) {
+        Set<Long> autoresDesconocidos = new HashSet<>();
+        Set<Long> categoriasDesconocidas = new HashSet<>();
+        for (CrearLibroInDTO libro : bloque) {
+            if (libro == null) {
+                continue;
+            }
+            if (libro.getAutor() != null && !autores.test(libro.getAutor())) {
+                autoresDesconocidos.add(libro.getAutor());
+            }
+            if (libro.getCategorias() != null) {
+                for (LibroCategoriaDTO categoria : libro.getCategorias()) {
+                    if (categoria != null && categoria.getCategoria() != null && !categorias.test(categoria.getCategoria())) {
+                        categoriasDesconocidas.add(categoria.getCategoria());
+                    }
+                }
+            }
+        }
+        Set<Long> autoresConfirmados = confirmar(autoresDesconocidos, autorRepository::buscarIdsExistentes);
+        Set<Long> categoriasConfirmadas = confirmar(categoriasDesconocidas, categoriaRepository::buscarIdsExistentes);
+        Predicate<Long> autoresBloque = autores.or(autoresConfirmados::contains);
+        Predicate<Long> categoriasBloque = categorias.or(categoriasConfirmadas::contains);
+
+        List<CrearLibroInDTO> lote = new ArrayList<>(bloque.size());
+        List<Long> filasLote = new ArrayList<>(bloque.size());
+        for (int i = 0; i < bloque.size(); i++) {
+            String error = validar(bloque.get(i), autoresBloque, categoriasBloque);
+            if (error != null) {
+                registrarError(resultado, filasBloque.get(i), error);
+            } else {
+                lote.add(bloque.get(i));
+                filasLote.add(filasBloque.get(i));
+            }
+        }
+        if (!lote.isEmpty()) {
+            persistirLote(lote, filasLote, resultado);
+        }
+        bloque.clear();
+        filasBloque.clear();
+    }
+
+    /**
+     * Consulta en la base de datos los IDs ausentes del índice.
+     * @return IDs confirmados
+     */
+    private static Set<Long> confirmar(Set<Long> desconocidos, Function<Collection<Long>, List<Long>> buscarExistentes) {
+        if (desconocidos.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(buscarExistentes.apply(desconocidos));
+    }
+
+    /**
+     * Valida una fila contra los IDs conocidos.
+     * @return mensaje de error o null si la fila es válida
+     */
+    private String validar(CrearLibroInDTO libro, Predicate<Long> autores, Predicate<Long> categorias) {
+        if (libro == null) {
+            return "Fila vacía";
+        }
+        if (!autores.test(libro.getAutor())) {
+            return "No existe el autor ingresado";
+        }
+        if (libro.getCategorias() != null) {
+            for (LibroCategoriaDTO categoria : libro.getCategorias()) {
+                if (categoria == null || !categorias.test(categoria.getCategoria())) {
+                    return "Alguna de las categorias ingresadas no existe";
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Persiste un lote en una transacción y vacía el contexto de persistencia.
+     * Si el lote falla, todas sus filas se registran como errores.
+     */
+    private void persistirLote(List<CrearLibroInDTO> lote, List<Long> filasLote, ResultadoImportacionDTO resultado) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                LocalDateTime ahora = LocalDateTime.now();
+                // Nombres de los autores del lote, para que los eventos lleven el mismo contenido que las actualizaciones
+                Map<Long, String> nombresAutor = new HashMap<>();
+                List<Long> autoresLote = lote.stream().map(CrearLibroInDTO::getAutor).distinct().toList();
+                for (AutorDTO autor : autorRepository.buscarPorIds(autoresLote)) {
+                    nombresAutor.put(autor.getId(), autor.getNombre());
+                }
+                Set<LibroCategoria> libroCategorias = new HashSet<>();
+                for (CrearLibroInDTO dto : lote) {
+                    Libro libro = new Libro();
+                    libro.setTitulo(dto.getTitulo());
+                    libro.setAnioPublicacion(dto.getAnioPublicacion());
+                    libro.setAutor(entityManager.getReference(Autor.class, dto.getAutor()));
+                    entityManager.persist(libro);
+                    if (dto.getIsbn() != null || dto.getNumPaginas() != null || dto.getIdioma() != null) {
+                        DetalleLibro detalle = new DetalleLibro();
+                        detalle.setIsbn(dto.getIsbn());
+                        detalle.setNumPaginas(dto.getNumPaginas());
+                        detalle.setIdioma(dto.getIdioma());
+                        detalle.setLibro(libro);
+                        entityManager.persist(detalle);
+                    }
+                    if (dto.getCategorias() != null) {
+                        for (LibroCategoriaDTO categoria : dto.getCategorias()) {
+                            libroCategorias.add(LibroService.libroCategoriaDTOToEntity(categoria, libro.getId(), ahora));
+                        }
+                    }
+                    // Se procesa tras el commit del lote
+                    eventPublisher.publishEvent(new CambioCatalogoEvent(CambioCatalogoEvent.Entidad.LIBRO,
+                            CambioCatalogoEvent.Operacion.CREAR, libro.getId(),
+                            new LibroDTO(libro.getId(), libro.getTitulo(), libro.getAnioPublicacion(), dto.getAutor(),
+                                    nombresAutor.get(dto.getAutor()),
+                                    dto.getIsbn(), dto.getNumPaginas(), dto.getIdioma())));
+                }
+                entityManager.flush();
+                libroCategoriaService.crearLibroCategoriaBatch(libroCategorias);
+                entityManager.clear();
+            });
+            resultado.setImportados(resultado.getImportados() + lote.size());
+        } catch (RuntimeException e) {
+            log.error("Error al guardar el lote de importación de las filas {} a {}",
+                    filasLote.get(0), filasLote.get(filasLote.size() - 1), e);
+            for (Long fila : filasLote) {
+                registrarError(resultado, fila, "Error al guardar el lote");
+            }
+        }
+        lote.clear();
+        filasLote.clear();
+    }
+
+    private void registrarError(ResultadoImportacionDTO resultado, long fila, String mensaje) {
+        resultado.setFallidos(resultado.getFallidos() + 1);
+        if (resultado.getErrores().size() < MAX_ERRORES) {
+            resultado.getErrores().add(new ErrorImportacionDTO(fila, mensaje));
+        }
+    }
+}
@@ -1,21 +1,56 @@
 package breaze.intro_spring.services.impl;
 
+import breaze.intro_spring.eventos.CambioCatalogoEvent;
+import breaze.intro_spring.model.dto.LibroCategoriaDTO;
 import breaze.intro_spring.model.entidades.LibroCategoria;
-import breaze.intro_spring.repositorios.LibroCategoriaRepository;
 import breaze.intro_spring.services.ILibroCategoriaService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Set;
 
 @Service
 public class LibroCategoriaService implements ILibroCategoriaService {
-    private final LibroCategoriaRepository libroCategoriaRepository;
+    // Con IDENTITY Hibernate no agrupa inserciones, por eso las filas de unión se insertan con JDBC
+    private static final String INSERT_LIBRO_CATEGORIA =
+            "insert into libro_categoria (libro_id, categoria_id, prioridad, added_at, comentario) values (?, ?, ?, ?, ?)";
+    private static final int TAMANIO_LOTE = 100;
 
-    public LibroCategoriaService(LibroCategoriaRepository libroCategoriaRepository) {
-        this.libroCategoriaRepository = libroCategoriaRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public LibroCategoriaService(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
     }
+
+    /**
+     * Inserta las categorías de un libro como un lote JDBC dentro de la transacción en curso.
+     * Publica un CambioCatalogoEvent por fila, que los listeners procesan tras el commit.
+     * @param categoriaLibros filas de unión a insertar
+     */
     @Override
     public void crearLibroCategoriaBatch(Set<LibroCategoria> categoriaLibros) {
-        this.libroCategoriaRepository.saveAll(categoriaLibros);
+        if (categoriaLibros.isEmpty()) {
+            return;
+        }
+        this.jdbcTemplate.batchUpdate(INSERT_LIBRO_CATEGORIA, new ArrayList<>(categoriaLibros), TAMANIO_LOTE, (ps, libroCategoria) -> {
+            ps.setLong(1, libroCategoria.getLibro().getId());
+            ps.setLong(2, libroCategoria.getCategoria().getId());
+            ps.setObject(3, libroCategoria.getPrioridad());
+            ps.setTimestamp(4, libroCategoria.getAddedAt() == null ? null : Timestamp.valueOf(libroCategoria.getAddedAt()));
+            ps.setString(5, libroCategoria.getComentario());
+        });
+        for (LibroCategoria libroCategoria : categoriaLibros) {
+            LibroCategoriaDTO dto = new LibroCategoriaDTO();
+            dto.setCategoria(libroCategoria.getCategoria().getId());
+            dto.setPrioridad(libroCategoria.getPrioridad());
+            dto.setComentario(libroCategoria.getComentario());
+            eventPublisher.publishEvent(new CambioCatalogoEvent(CambioCatalogoEvent.Entidad.LIBRO_CATEGORIA,
+                    CambioCatalogoEvent.Operacion.CREAR, libroCategoria.getLibro().getId(), dto));
+        }
     }
 }
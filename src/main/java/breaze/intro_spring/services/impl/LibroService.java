@@ -1,24 +1,38 @@
 package breaze.intro_spring.services.impl;
 
+import breaze.intro_spring.busqueda.IndiceBusqueda;
+import breaze.intro_spring.busqueda.IndiceTexto;
+import breaze.intro_spring.eventos.CambioCatalogoEvent;
+import breaze.intro_spring.model.dto.AutorDTO;
 import breaze.intro_spring.model.dto.CrearLibroInDTO;
 import breaze.intro_spring.model.dto.CrearLibroOutDTO;
 import breaze.intro_spring.model.dto.LibroCategoriaDTO;
+import breaze.intro_spring.model.dto.LibroDTO;
+import breaze.intro_spring.model.dto.PaginaDTO;
+import breaze.intro_spring.model.dto.ResultadoBusquedaDTO;
 import breaze.intro_spring.model.entidades.Autor;
 import breaze.intro_spring.model.entidades.Categoria;
+import breaze.intro_spring.model.entidades.DetalleLibro;
 import breaze.intro_spring.model.entidades.Libro;
 import breaze.intro_spring.model.entidades.LibroCategoria;
+import breaze.intro_spring.repositorios.ILibroDetalleRepository;
 import breaze.intro_spring.repositorios.LibroRepository;
 import breaze.intro_spring.services.IAutorService;
 import breaze.intro_spring.services.ICategoriaService;
 import breaze.intro_spring.services.ILibroCategoriaService;
 import breaze.intro_spring.services.ILibroService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implementación del servicio de libros.
@@ -34,11 +48,19 @@ public class LibroService implements ILibroService {
     private final IAutorService autorService;
     private final ICategoriaService categoriaService;
     private final ILibroCategoriaService libroCategoriaService;
+    private final ILibroDetalleRepository libroDetalleRepository;
+    private final IndiceBusqueda indiceBusqueda;
+    private final ApplicationEventPublisher eventPublisher;
     /**
      * Constructor que inyecta el repositorio de libros.
      * @param libroRepository repositorio de libros
      */
-    public LibroService(LibroRepository libroRepository, IAutorService autorService, ICategoriaService categoriaService, ILibroCategoriaService libroCategoriaService) {
+    public LibroService(LibroRepository libroRepository, IAutorService autorService, ICategoriaService categoriaService,
+                        ILibroCategoriaService libroCategoriaService, ILibroDetalleRepository libroDetalleRepository,
+                        IndiceBusqueda indiceBusqueda, ApplicationEventPublisher eventPublisher) {
+        this.indiceBusqueda = indiceBusqueda;
+        this.eventPublisher = eventPublisher;
+        this.libroDetalleRepository = libroDetalleRepository;
         this.libroCategoriaService = libroCategoriaService;
         this.categoriaService = categoriaService;
         this.autorService = autorService;
@@ -46,18 +68,20 @@ public class LibroService implements ILibroService {
     }
 
     /**
-     * Crea un nuevo libro.
+     * Crea un nuevo libro junto con su detalle y sus categorías en una sola transacción.
      * @param crearLibroInDTO datos del libro a crear
      * @return libro creado
      */
     @Override
+    @Transactional
     public CrearLibroOutDTO crearLibro(CrearLibroInDTO crearLibroInDTO) {
         CrearLibroOutDTO crearLibroOutDTO = new CrearLibroOutDTO();
         if(!this.autorService.existeAutor(crearLibroInDTO.getAutor())) {
             crearLibroOutDTO.setMensajeError("No existe el autor ingresado");
             return crearLibroOutDTO;
         }
-        if (!validarExistenciCategorias(crearLibroInDTO.getCategorias())) {
+        Set<LibroCategoriaDTO> categorias = crearLibroInDTO.getCategorias() == null ? Set.of() : crearLibroInDTO.getCategorias();
+        if (!validarExistenciCategorias(categorias)) {
             crearLibroOutDTO.setMensajeError("Alguna de las categorias ingresadas no existe");
             return crearLibroOutDTO;
         }
@@ -69,23 +93,69 @@ public class LibroService implements ILibroService {
         libro.setAutor(autor);
         Libro libroCreado = this.libroRepository.save(libro);
         if (libroCreado.getId() != null) {
-            Set<LibroCategoria> libroCategorias = crearLibroInDTO.getCategorias().stream().map(libroCategoriaDTO -> {
-                return libroCategoriaDTOToEntity(libroCategoriaDTO, libroCreado.getId());
-            }).collect(Collectors.toSet());
+            guardarDetalle(crearLibroInDTO, libroCreado);
+            LocalDateTime ahora = LocalDateTime.now();
+            Set<LibroCategoria> libroCategorias = categorias.stream()
+                    .map(libroCategoriaDTO -> libroCategoriaDTOToEntity(libroCategoriaDTO, libroCreado.getId(), ahora))
+                    .collect(Collectors.toSet());
             libroCreado.setLibroCategorias(libroCategorias);
             this.libroCategoriaService.crearLibroCategoriaBatch(libroCategorias);
+            // El nombre del autor sale de la caché de consultas; el evento lleva el mismo contenido que las actualizaciones
+            String autorNombre = this.autorService.obtenerAutor(crearLibroInDTO.getAutor()).map(AutorDTO::getNombre).orElse(null);
+            LibroDTO creado = new LibroDTO(libroCreado.getId(), libroCreado.getTitulo(), libroCreado.getAnioPublicacion(),
+                    crearLibroInDTO.getAutor(), autorNombre, crearLibroInDTO.getIsbn(), crearLibroInDTO.getNumPaginas(),
+                    crearLibroInDTO.getIdioma());
+            publicar(CambioCatalogoEvent.Operacion.CREAR, creado);
             crearLibroOutDTO.setExitoso(true);
         }
         return crearLibroOutDTO;
     }
 
     /**
-     * Obtiene la lista de todos los libros registrados.
-     * @return lista de libros
+     * Guarda el detalle del libro si la petición incluye alguno de sus campos.
+     * @param crearLibroInDTO datos del libro con isbn, número de páginas e idioma
+     * @param libro libro ya persistido
+     */
+    private void guardarDetalle(CrearLibroInDTO crearLibroInDTO, Libro libro) {
+        if (crearLibroInDTO.getIsbn() == null && crearLibroInDTO.getNumPaginas() == null && crearLibroInDTO.getIdioma() == null) {
+            return;
+        }
+        DetalleLibro detalle = new DetalleLibro();
+        detalle.setIsbn(crearLibroInDTO.getIsbn());
+        detalle.setNumPaginas(crearLibroInDTO.getNumPaginas());
+        detalle.setIdioma(crearLibroInDTO.getIdioma());
+        detalle.setLibro(libro);
+        libro.setDetalle(this.libroDetalleRepository.save(detalle));
+    }
+
+    /**
+     * Obtiene una página de libros ordenados por ID a partir de un cursor.
+     * @param cursor último ID de la página anterior; null para la primera página
+     * @param tamanio número máximo de libros de la página
+     * @return página de libros con el cursor de la siguiente
+     */
+    @Override
+    public PaginaDTO<LibroDTO> obtenerLibros(Long cursor, int tamanio) {
+        // Se pide un elemento extra para saber si existe una página siguiente
+        List<LibroDTO> libros = this.libroRepository.buscarPagina(cursor == null ? 0L : cursor, Limit.of(tamanio + 1));
+        if (libros.size() <= tamanio) {
+            return new PaginaDTO<>(libros, null);
+        }
+        List<LibroDTO> pagina = libros.subList(0, tamanio);
+        return new PaginaDTO<>(pagina, pagina.get(tamanio - 1).getId());
+    }
+
+    /**
+     * Recorre todos los libros en orden de ID sin cargarlos completos en memoria.
+     * Las filas se leen del cursor JDBC por bloques y se entregan una a una al consumidor.
+     * @param consumidor función que recibe cada libro
      */
     @Override
-    public List<Libro> obtenerLibros() {
-        return this.libroRepository.findAll();
+    @Transactional(readOnly = true)
+    public void recorrerLibros(Consumer<LibroDTO> consumidor) {
+        try (Stream<LibroDTO> libros = this.libroRepository.recorrerTodos()) {
+            libros.forEach(consumidor);
+        }
     }
 
     /**
@@ -96,8 +166,8 @@ public class LibroService implements ILibroService {
      * @return Optional con el libro actualizado o vacío si no existe
      */
     @Override
-    public Optional<Libro> actualizarParcial(Long id, Libro libro) {
-        return libroRepository.findById(id)
+    public Optional<LibroDTO> actualizarParcial(Long id, Libro libro) {
+        Optional<LibroDTO> actualizado = libroRepository.findById(id)
                 .map(existingLibro -> {
                     if (libro.getTitulo() != null) {
                         existingLibro.setTitulo(libro.getTitulo());
@@ -109,10 +179,46 @@ public class LibroService implements ILibroService {
                         existingLibro.setAutor(libro.getAutor());
                     }
                     return libroRepository.save(existingLibro);
-                });
+                })
+                // Se devuelve la proyección para incluir el nombre del autor y el detalle actualizados
+                .flatMap(libroGuardado -> libroRepository.buscarPorId(libroGuardado.getId()));
+        actualizado.ifPresent(dto -> publicar(CambioCatalogoEvent.Operacion.ACTUALIZACION_PARCIAL, dto));
+        return actualizado;
     }
 
-    private LibroCategoria libroCategoriaDTOToEntity(LibroCategoriaDTO dto, Long idLibro) {
+    /**
+     * Busca libros por título en el índice de texto completo.
+     * Admite prefijos, errores tipográficos leves y no distingue mayúsculas ni acentos.
+     * @param texto texto a buscar
+     * @param pagina número de página, empezando en 0
+     * @param tamanio libros por página
+     * @return página de libros ordenados por relevancia
+     */
+    @Override
+    public ResultadoBusquedaDTO<LibroDTO> buscarLibros(String texto, int pagina, int tamanio) {
+        IndiceTexto.Resultado resultado = indiceBusqueda.buscarLibros(texto, pagina, tamanio);
+        List<LibroDTO> libros = resultado.ids().isEmpty() ? List.of()
+                : resultado.ordenar(libroRepository.buscarPorIds(resultado.ids()), LibroDTO::getId);
+        return new ResultadoBusquedaDTO<>(libros, resultado.total(), pagina, tamanio);
+    }
+
+    /**
+     * Publica el cambio de un libro para los componentes que mantienen datos derivados.
+     * @param operacion operación realizada
+     * @param libro estado resultante del libro
+     */
+    private void publicar(CambioCatalogoEvent.Operacion operacion, LibroDTO libro) {
+        eventPublisher.publishEvent(new CambioCatalogoEvent(CambioCatalogoEvent.Entidad.LIBRO, operacion, libro.getId(), libro));
+    }
+
+    /**
+     * Convierte una categoría del DTO de entrada en la entidad de unión con el libro.
+     * @param dto categoría con prioridad y comentario
+     * @param idLibro identificador del libro creado
+     * @param addedAt fecha de alta de la categoría
+     * @return entidad LibroCategoria lista para persistir
+     */
+    static LibroCategoria libroCategoriaDTOToEntity(LibroCategoriaDTO dto, Long idLibro, LocalDateTime addedAt) {
         if (dto == null) return null;
         LibroCategoria libroCategoria = new LibroCategoria();
         Libro libro = new Libro();
@@ -122,18 +228,13 @@ public class LibroService implements ILibroService {
         categoria.setId(dto.getCategoria());
         libroCategoria.setCategoria(categoria);
         libroCategoria.setPrioridad(dto.getPrioridad());
-        libroCategoria.setAddedAt(LocalDateTime.now());
+        libroCategoria.setAddedAt(addedAt);
         libroCategoria.setComentario(dto.getComentario());
         return libroCategoria;
     }
 
     private boolean validarExistenciCategorias(Set<LibroCategoriaDTO> categorias) {
-        int noExistentes = 0;
-        for (LibroCategoriaDTO categoria : categorias) {
-            if (!this.categoriaService.validarExistenciaCategoria(categoria.getCategoria())) {
-                noExistentes++;
-            }
-        }
-        return noExistentes == 0;
+        Set<Long> ids = categorias.stream().map(LibroCategoriaDTO::getCategoria).collect(Collectors.toSet());
+        return this.categoriaService.validarExistenciaCategorias(ids);
     }
 }
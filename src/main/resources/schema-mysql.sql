@@ -0,0 +1,40 @@
+-- Tablas que la aplicación añade al esquema existente de la biblioteca (autor, libro, categoria, usuario...).
+-- Se ejecuta en cada arranque contra MySQL (spring.sql.init.platform=mysql); CREATE TABLE IF NOT EXISTS lo hace idempotente.
+-- Con una base embebida (H2) no se ejecuta: Hibernate crea las tablas (EsquemaConfig).
+-- Los índices se declaran aquí porque las anotaciones @Index solo se aplican si Hibernate genera el esquema.
+
+-- Refresh tokens emitidos (RefreshTokenService)
+CREATE TABLE IF NOT EXISTS token_refresco (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    token_hash VARCHAR(64) NOT NULL,
+    usuario_id BIGINT NOT NULL,
+    familia VARCHAR(36) NOT NULL,
+    expira_en DATETIME(6) NOT NULL,
+    usado BIT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_token_refresco_token_hash UNIQUE (token_hash),
+    INDEX idx_token_refresco_familia (familia),
+    INDEX idx_token_refresco_expira_en (expira_en)
+);
+
+-- Access tokens revocados antes de expirar (RevocationService)
+CREATE TABLE IF NOT EXISTS token_revocado (
+    jti VARCHAR(36) NOT NULL,
+    expira_en DATETIME(6) NOT NULL,
+    PRIMARY KEY (jti),
+    INDEX idx_token_revocado_expira_en (expira_en)
+);
+
+-- Registro de auditoría de cambios del catálogo (RegistroAuditoria)
+CREATE TABLE IF NOT EXISTS evento_auditoria (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    entidad VARCHAR(20) NOT NULL,
+    operacion VARCHAR(25) NOT NULL,
+    entidad_id BIGINT,
+    datos LONGTEXT,
+    usuario VARCHAR(100),
+    fecha DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_evento_auditoria_fecha (fecha),
+    INDEX idx_evento_auditoria_entidad (entidad, entidad_id)
+);
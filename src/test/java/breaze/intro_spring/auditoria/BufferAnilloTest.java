@@ -0,0 +1,107 @@
+package breaze.intro_spring.auditoria;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BufferAnilloTest {
+
+	@Test
+	void redondeaLaCapacidadAPotenciaDeDos() {
+		assertThat(new BufferAnillo<Integer>(5).getCapacidad()).isEqualTo(8);
+		assertThat(new BufferAnillo<Integer>(8).getCapacidad()).isEqualTo(8);
+		assertThatThrownBy(() -> new BufferAnillo<Integer>(1)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void rechazaElementosConLaColaLlena() {
+		BufferAnillo<Integer> buffer = new BufferAnillo<>(4);
+		for (int i = 0; i < 4; i++) {
+			assertThat(buffer.ofrecer(i)).isTrue();
+		}
+
+		assertThat(buffer.ofrecer(4)).isFalse();
+		assertThat(buffer.tamanio()).isEqualTo(4);
+
+		List<Integer> extraidos = new ArrayList<>();
+		assertThat(buffer.drenar(extraidos::add, 1)).isEqualTo(1);
+		assertThat(buffer.ofrecer(4)).isTrue();
+		assertThat(buffer.ofrecer(5)).isFalse();
+	}
+
+	@Test
+	void conservaElOrdenAlDarLaVuelta() {
+		BufferAnillo<Integer> buffer = new BufferAnillo<>(4);
+		List<Integer> extraidos = new ArrayList<>();
+		int siguiente = 0;
+		// Varias vueltas completas con llenados y vaciados parciales
+		for (int vuelta = 0; vuelta < 10; vuelta++) {
+			while (buffer.ofrecer(siguiente)) {
+				siguiente++;
+			}
+			buffer.drenar(extraidos::add, 3);
+		}
+		buffer.drenar(extraidos::add, Integer.MAX_VALUE);
+
+		assertThat(buffer.tamanio()).isZero();
+		assertThat(extraidos).hasSize(siguiente);
+		for (int i = 0; i < extraidos.size(); i++) {
+			assertThat(extraidos.get(i)).isEqualTo(i);
+		}
+	}
+
+	@Test
+	void noPierdeElementosConVariosProductores() throws InterruptedException {
+		BufferAnillo<Integer> buffer = new BufferAnillo<>(64);
+		int productores = 4;
+		int porProductor = 5_000;
+		CountDownLatch inicio = new CountDownLatch(1);
+		List<Thread> hilos = new ArrayList<>();
+		for (int p = 0; p < productores; p++) {
+			int base = p * porProductor;
+			Thread hilo = new Thread(() -> {
+				try {
+					inicio.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				for (int i = 0; i < porProductor; i++) {
+					while (!buffer.ofrecer(base + i)) {
+						Thread.yield();
+					}
+				}
+			});
+			hilo.start();
+			hilos.add(hilo);
+		}
+		inicio.countDown();
+
+		boolean[] vistos = new boolean[productores * porProductor];
+		int[] ultimoPorProductor = new int[productores];
+		Arrays.fill(ultimoPorProductor, -1);
+		int total = 0;
+		while (total < vistos.length) {
+			List<Integer> lote = new ArrayList<>();
+			total += buffer.drenar(lote::add, 32);
+			for (int valor : lote) {
+				assertThat(vistos[valor]).isFalse();
+				vistos[valor] = true;
+				// Cada productor publica en orden
+				int productor = valor / porProductor;
+				assertThat(valor).isGreaterThan(ultimoPorProductor[productor]);
+				ultimoPorProductor[productor] = valor;
+			}
+		}
+		for (Thread hilo : hilos) {
+			hilo.join();
+		}
+		assertThat(buffer.tamanio()).isZero();
+	}
+}
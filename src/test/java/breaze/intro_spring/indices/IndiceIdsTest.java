@@ -0,0 +1,78 @@
+package breaze.intro_spring.indices;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndiceIdsTest {
+
+	private static final List<Long> IDS = LongStream.rangeClosed(1, 10_000).boxed().toList();
+
+	@Test
+	void contieneNoPierdeIdsDuranteReemplazar() throws InterruptedException {
+		IndiceIds indice = new IndiceIds();
+		indice.iniciarCarga();
+		indice.reemplazar(IDS);
+
+		AtomicBoolean activo = new AtomicBoolean(true);
+		AtomicLong fallos = new AtomicLong();
+		AtomicLong lecturas = new AtomicLong();
+		Thread lector = new Thread(() -> {
+			long id = 1;
+			while (activo.get()) {
+				if (!indice.contiene(id)) {
+					fallos.incrementAndGet();
+				}
+				lecturas.incrementAndGet();
+				id = id % 10_000 + 1;
+			}
+		});
+		lector.start();
+		for (int i = 0; i < 500; i++) {
+			indice.iniciarCarga();
+			indice.reemplazar(IDS);
+		}
+		activo.set(false);
+		lector.join();
+
+		assertThat(lecturas.get()).isPositive();
+		assertThat(fallos.get()).isZero();
+	}
+
+	@Test
+	void reemplazarReaplicaCambiosPendientes() {
+		IndiceIds indice = new IndiceIds();
+		assertThat(indice.isCargado()).isFalse();
+
+		indice.iniciarCarga();
+		indice.agregar(20_000);
+		indice.eliminar(5);
+		indice.reemplazar(List.of(1L, 5L, 64L));
+
+		assertThat(indice.isCargado()).isTrue();
+		assertThat(indice.contiene(1L)).isTrue();
+		assertThat(indice.contiene(64L)).isTrue();
+		assertThat(indice.contiene(20_000L)).isTrue();
+		assertThat(indice.contiene(5L)).isFalse();
+		assertThat(indice.contiene(2L)).isFalse();
+		assertThat(indice.tamanio()).isEqualTo(3);
+	}
+
+	@Test
+	void agregarAmpliaElBitmap() {
+		IndiceIds indice = new IndiceIds();
+		indice.agregar(1_000_000);
+		indice.agregar(3);
+		indice.eliminar(3);
+
+		assertThat(indice.contiene(1_000_000L)).isTrue();
+		assertThat(indice.contiene(3L)).isFalse();
+		assertThat(indice.contiene((Long) null)).isFalse();
+		assertThat(indice.contiene(-1L)).isFalse();
+	}
+}
@@ -0,0 +1,116 @@
+package breaze.intro_spring.sentencias;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Fija el presupuesto de sentencias SQL de los endpoints que ejecutan SQL fuera del hilo de la petición:
+ * el recorrido NDJSON de /libro/consultar y el login, que continúa en otros executors.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"spring.datasource.url=jdbc:h2:mem:presupuesto;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.devtools.restart.enabled=false",
+		"management.server.port=0",
+		"sentencias.modo=rechazar"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PresupuestoSentenciasTest {
+
+	private static final int LIBROS = 50;
+
+	@Autowired
+	private TestRestTemplate rest;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	private String token;
+
+	@BeforeAll
+	void cargarCatalogo() {
+		ResponseEntity<Map> registro = rest.postForEntity("/auth/register",
+				Map.of("username", "presupuesto", "password", "clave", "roles", List.of("ADMIN")), Map.class);
+		assertThat(registro.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+		token = (String) registro.getBody().get("access_token");
+
+		ResponseEntity<Map> autor = rest.exchange("/autores/crear", HttpMethod.POST,
+				conToken(Map.of("nombre", "Autor", "nacionalidad", "Chilena"), MediaType.APPLICATION_JSON), Map.class);
+		assertThat(autor.getStatusCode().is2xxSuccessful()).isTrue();
+		List<Map<String, Object>> libros = new ArrayList<>();
+		for (int i = 0; i < LIBROS; i++) {
+			libros.add(Map.of("titulo", "Libro " + i, "anioPublicacion", 2000 + i, "autor", autor.getBody().get("id")));
+		}
+		ResponseEntity<Map> importacion = rest.exchange("/libro/importar", HttpMethod.POST,
+				conToken(libros, MediaType.APPLICATION_JSON), Map.class);
+		assertThat(importacion.getBody().get("importados")).isEqualTo(LIBROS);
+	}
+
+	@Test
+	void consultarNdjsonEjecutaUnaSentencia() {
+		ResponseEntity<String> respuesta = rest.exchange("/libro/consultar", HttpMethod.GET,
+				conToken(null, MediaType.APPLICATION_NDJSON), String.class);
+
+		assertThat(respuesta.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(respuesta.getBody().lines()).hasSize(LIBROS);
+		// El recorrido se ejecuta en el executor de streaming, no en el hilo de la petición
+		assertThat(sentencias("/libro/consultar")).isEqualTo(1);
+	}
+
+	@Test
+	void loginEjecutaTresSentencias() {
+		ResponseEntity<Map> respuesta = rest.postForEntity("/auth/login",
+				Map.of("username", "presupuesto", "password", "clave"), Map.class);
+
+		assertThat(respuesta.getStatusCode()).isEqualTo(HttpStatus.OK);
+		// Usuario con sus roles en el hilo de la petición y alta del refresh token en el executor de tareas
+		assertThat(respuesta.getHeaders().getFirst(ContadorSentenciasFilter.CABECERA)).isEqualTo("3");
+		assertThat(sentencias("/auth/login")).isEqualTo(3);
+	}
+
+	private HttpEntity<Object> conToken(Object cuerpo, MediaType tipo) {
+		HttpHeaders cabeceras = new HttpHeaders();
+		cabeceras.setBearerAuth(token);
+		if (cuerpo == null) {
+			cabeceras.setAccept(List.of(tipo));
+		} else {
+			cabeceras.setContentType(tipo);
+		}
+		return new HttpEntity<>(cuerpo, cabeceras);
+	}
+
+	/**
+	 * Sentencias de la única petición registrada para el endpoint. La métrica de una petición asíncrona
+	 * se registra al terminar su procesamiento, que puede ser justo después de recibir la respuesta.
+	 */
+	private long sentencias(String uri) {
+		await().atMost(Duration.ofSeconds(5)).until(() -> resumen(uri) != null && resumen(uri).count() == 1);
+		return (long) resumen(uri).totalAmount();
+	}
+
+	private DistributionSummary resumen(String uri) {
+		return registry.find("biblioteca.sql.sentencias").tag("uri", uri).summary();
+	}
+}